@@ -0,0 +1,277 @@
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import exceptions.OnitamaGameException;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Serviço HTTP de análise de posições, usando o servidor embutido no JDK. Recebe uma posição na notação de
+ * GameState.parse e devolve em JSON os movimentos legais e o melhor movimento com a avaliação do motor.
+ * Os resultados ficam num ResultCache, então posições populares são analisadas uma vez só, mesmo quando
+ * muitos pedidos chegam ao mesmo tempo.
+ * <p>
+ * GET /analyze?position=...&amp;depth=N ou POST /analyze?depth=N com a posição no corpo. Os movimentos são
+ * descritos nos termos de Game.makeMove: carta, posição da peça e deslocamento da carta. Posições
+ * impossíveis (ver GameState.validate) e corpos maiores que MAX_BODY bytes são recusados com o status 400.
+ * <p>
+ * O serviço não tem autenticação, então só aceita conexões da própria máquina, a não ser que --bind indique
+ * outro endereço.
+ * <p>
+ * Uso: java AnalysisServer ["name=a,depth=6"] [--port P] [--bind endereco] [--threads N] [--cache N] [--ttl segundos]
+ */
+public class AnalysisServer {
+
+    public static final int DEFAULT_PORT = 8080;
+
+    /**
+     * Maior profundidade aceita num pedido
+     */
+    public static final int MAX_DEPTH = 12;
+
+    /**
+     * Maior corpo aceito num pedido POST, em bytes; uma posição tem menos de 100
+     */
+    public static final int MAX_BODY = 1024;
+
+    private final HttpServer server;
+    private final ExecutorService executor;
+    private final EngineConfig config;
+    private final ResultCache<Key, String> cache;
+    private final ThreadLocal<Engine> engines;
+
+    /**
+     * Construtor que cria o servidor, sem iniciá-lo
+     * @param address O endereço em que o servidor escuta
+     * @param config A configuração do motor usada quando o pedido não define a profundidade
+     * @param threads Número de análises simultâneas; cada thread tem o seu motor
+     * @param cacheSize Número máximo de posições no cache
+     * @param ttlMillis Tempo que uma análise continua no cache
+     * @exception IOException Caso o endereço não possa ser usado
+     */
+    public AnalysisServer(InetSocketAddress address, EngineConfig config, int threads, int cacheSize, long ttlMillis)
+            throws IOException {
+        this.config = config;
+        this.cache = new ResultCache<>(cacheSize, ttlMillis);
+        this.engines = ThreadLocal.withInitial(config::createEngine);
+        this.executor = Executors.newFixedThreadPool(threads);
+        this.server = HttpServer.create(address, 0);
+        this.server.setExecutor(executor);
+        this.server.createContext("/analyze", this::handle);
+    }
+
+    public static void main(String[] args) throws IOException {
+        String spec = "name=analysis,depth=6";
+        int port = DEFAULT_PORT;
+        InetAddress bind = InetAddress.getLoopbackAddress();
+        int threads = Runtime.getRuntime().availableProcessors();
+        int cacheSize = 100_000;
+        int ttl = 3600;
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--port": port = Integer.parseInt(args[++i]); break;
+                case "--bind": bind = InetAddress.getByName(args[++i]); break;
+                case "--threads": threads = Integer.parseInt(args[++i]); break;
+                case "--cache": cacheSize = Integer.parseInt(args[++i]); break;
+                case "--ttl": ttl = Integer.parseInt(args[++i]); break;
+                default: spec = args[i];
+            }
+        }
+        AnalysisServer analysis = new AnalysisServer(new InetSocketAddress(bind, port), EngineConfig.parse(spec), threads,
+            cacheSize, ttl * 1000L);
+        analysis.start();
+        System.out.println("Análise disponível em http://" + bind.getHostAddress() + ":" + analysis.getPort() + "/analyze");
+    }
+
+    public void start() {
+        server.start();
+    }
+
+    /**
+     * Método que para de aceitar pedidos e encerra as threads de análise
+     * @param delaySeconds Tempo máximo de espera pelos pedidos em andamento
+     */
+    public void stop(int delaySeconds) {
+        server.stop(delaySeconds);
+        executor.shutdown();
+    }
+
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    public ResultCache<Key, String> getCache() {
+        return cache;
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        int status = 200;
+        String body;
+        try {
+            Map<String, String> query = parseQuery(exchange.getRequestURI().getRawQuery());
+            String notation;
+            if ("POST".equals(exchange.getRequestMethod())) {
+                byte[] request;
+                try (InputStream in = exchange.getRequestBody()) {
+                    request = in.readNBytes(MAX_BODY + 1);
+                }
+                if (request.length > MAX_BODY) {
+                    throw new IllegalArgumentException("O corpo do pedido passa de " + MAX_BODY + " bytes");
+                }
+                notation = new String(request, StandardCharsets.UTF_8);
+            } else if ("GET".equals(exchange.getRequestMethod())) {
+                notation = query.get("position");
+            } else {
+                throw new IllegalArgumentException("Método não suportado: " + exchange.getRequestMethod());
+            }
+            if (notation == null || notation.isBlank()) {
+                throw new IllegalArgumentException("Falta a posição");
+            }
+            int depth = query.containsKey("depth") ? Integer.parseInt(query.get("depth")) : 0;
+            if (depth < 0 || depth > MAX_DEPTH) {
+                throw new IllegalArgumentException("A profundidade deve estar entre 0 (padrão) e " + MAX_DEPTH);
+            }
+            GameState state = GameState.parse(notation);
+            state.validate();
+            body = cache.get(new Key(state.packBoard(), state.packCards(), depth), key -> analyze(state, depth));
+        } catch (IllegalArgumentException | OnitamaGameException e) {
+            status = 400;
+            body = "{\"error\":" + quote(e.getMessage()) + "}";
+        }
+
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    /**
+     * Método que analisa uma posição e monta a resposta em JSON
+     * @param state A posição
+     * @param depth A profundidade da busca, ou 0 para usar o limite da configuração
+     * @return O JSON da análise
+     */
+    private String analyze(GameState state, int depth) {
+        StringBuilder json = new StringBuilder(1024);
+        json.append("{\"position\":").append(quote(state.toNotation()));
+        json.append(",\"sideToMove\":").append(quote(colorName(state.getSideToMove())));
+
+        int winner = state.winner();
+        if (winner >= 0) {
+            json.append(",\"winner\":").append(quote(colorName(winner)));
+            return json.append(",\"legalMoves\":[]}").toString();
+        }
+
+        int[] moves = new int[GameState.MAX_MOVES];
+        int count = state.generateMoves(moves);
+        json.append(",\"legalMoves\":[");
+        for (int i = 0; i < count; i++) {
+            if (i > 0) {
+                json.append(',');
+            }
+            appendMove(json, state, moves[i]);
+        }
+        json.append(']');
+
+        if (count > 0) {
+            Engine engine = engines.get();
+            SearchResult result = depth > 0 ? engine.search(state, depth) : config.search(engine, state);
+            json.append(",\"bestMove\":");
+            appendMove(json, state, result.getBestMove());
+            json.append(",\"score\":").append(result.getScore());
+            json.append(",\"depth\":").append(result.getDepth());
+            json.append(",\"nodes\":").append(result.getNodes());
+            json.append(String.format(Locale.ROOT, ",\"stats\":{\"branchingFactor\":%.2f,\"firstMoveCutoffRate\":%.3f,"
+                + "\"tableHitRate\":%.3f}", result.getBranchingFactor(), result.getFirstMoveCutoffRate(),
+                result.getTableHitRate()));
+        }
+        return json.append('}').toString();
+    }
+
+    private static void appendMove(StringBuilder json, GameState state, int move) {
+        Position from = GameState.moveFromPosition(move);
+        Position offset = state.moveOffset(move);
+        int to = GameState.moveTo(move);
+        json.append("{\"card\":").append(quote(state.moveCard(move).getName()));
+        json.append(",\"from\":[").append(from.getRow()).append(',').append(from.getCol()).append(']');
+        json.append(",\"offset\":[").append(offset.getRow()).append(',').append(offset.getCol()).append(']');
+        json.append(",\"to\":[").append(to / 5).append(',').append(to % 5).append("]}");
+    }
+
+    private static String colorName(int color) {
+        return color == GameState.RED ? "red" : "blue";
+    }
+
+    private static String quote(String text) {
+        StringBuilder quoted = new StringBuilder(text.length() + 2).append('"');
+        for (char c : text.toCharArray()) {
+            if (c == '"' || c == '\\') {
+                quoted.append('\\').append(c);
+            } else if (c < 0x20) {
+                quoted.append(String.format("\\u%04x", (int) c));
+            } else {
+                quoted.append(c);
+            }
+        }
+        return quoted.append('"').toString();
+    }
+
+    private static Map<String, String> parseQuery(String query) {
+        Map<String, String> parameters = new HashMap<>();
+        if (query == null) {
+            return parameters;
+        }
+        for (String pair : query.split("&")) {
+            int equals = pair.indexOf('=');
+            if (equals > 0) {
+                parameters.put(URLDecoder.decode(pair.substring(0, equals), StandardCharsets.UTF_8),
+                    URLDecoder.decode(pair.substring(equals + 1), StandardCharsets.UTF_8));
+            }
+        }
+        return parameters;
+    }
+
+    /**
+     * Chave do cache: a posição compactada e a profundidade pedida. A posição inteira entra na chave,
+     * e não só o hash, para que duas posições com o mesmo hash nunca recebam a mesma análise
+     */
+    public static final class Key {
+
+        private final long board;
+        private final long cards;
+        private final int depth;
+
+        public Key(long board, long cards, int depth) {
+            this.board = board;
+            this.cards = cards;
+            this.depth = depth;
+        }
+
+        @Override
+        public int hashCode() {
+            long h = board * 0x9E3779B97F4A7C15L ^ cards * 0xC2B2AE3D27D4EB4FL ^ depth;
+            return (int) (h ^ (h >>> 32));
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (!(obj instanceof Key)) {
+                return false;
+            }
+            Key other = (Key) obj;
+            return board == other.board && cards == other.cards && depth == other.depth;
+        }
+    }
+}
@@ -0,0 +1,194 @@
+import exceptions.OnitamaGameException;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Ferramenta que analisa um arquivo de partidas (uma GameRecord em texto por linha, opcionalmente compactado
+ * com GZIP) usando todos os núcleos. Cada partida é reproduzida pelas regras e cada lance recebe a avaliação
+ * do motor e a perda em relação ao melhor lance; lances que perdem muito são marcados como erro grave.
+ * <p>
+ * O arquivo é lido em ordem e no máximo uma janela fixa de partidas fica em análise ao mesmo tempo; cada
+ * partida é escrita assim que ela e todas as anteriores terminam. A memória usada não depende do tamanho
+ * do arquivo, e a saída fica na mesma ordem da entrada.
+ * <p>
+ * A saída tem uma linha por lance: "jogo lance movimento avaliação perda marca", em que a avaliação é a da
+ * posição antes do lance, do ponto de vista de quem joga, e a marca é "erro" para um erro grave ou "ilegal"
+ * para uma partida que não pôde ser reproduzida.
+ * <p>
+ * Uso: java ArchiveAnalyzer partidas.txt[.gz] analise.tsv[.gz] [--depth N] [--blunder N] [--threads N]
+ * [--config "name=a,hash=16"]
+ */
+public class ArchiveAnalyzer {
+
+    private final int depth;
+    private final int blunder;
+    private final int threads;
+    private final ThreadLocal<Engine> engines;
+
+    /**
+     * Construtor que define as opções da análise
+     * @param config A configuração do motor
+     * @param depth A profundidade da busca em cada posição
+     * @param blunder A perda, do ponto de vista de quem joga, a partir da qual um lance é um erro grave
+     * @param threads Número de partidas analisadas ao mesmo tempo
+     */
+    public ArchiveAnalyzer(EngineConfig config, int depth, int blunder, int threads) {
+        this.depth = depth;
+        this.blunder = blunder;
+        this.threads = threads;
+        this.engines = ThreadLocal.withInitial(config::createEngine);
+    }
+
+    public static void main(String[] args) throws Exception {
+        String spec = "name=analysis,depth=5";
+        int depth = 5;
+        int blunder = 150;
+        int threads = Runtime.getRuntime().availableProcessors();
+        Path input = null;
+        Path output = null;
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--depth": depth = Integer.parseInt(args[++i]); break;
+                case "--blunder": blunder = Integer.parseInt(args[++i]); break;
+                case "--threads": threads = Integer.parseInt(args[++i]); break;
+                case "--config": spec = args[++i]; break;
+                default:
+                    if (input == null) {
+                        input = Paths.get(args[i]);
+                    } else {
+                        output = Paths.get(args[i]);
+                    }
+            }
+        }
+        if (input == null || output == null) {
+            System.out.println("Uso: java ArchiveAnalyzer partidas.txt analise.tsv [--depth N] [--blunder N] [--threads N]");
+            return;
+        }
+
+        ArchiveAnalyzer analyzer = new ArchiveAnalyzer(EngineConfig.parse(spec), depth, blunder, threads);
+        long start = System.currentTimeMillis();
+        long games = analyzer.run(input, output);
+        System.out.printf("%d partidas analisadas em %d ms%n", games, System.currentTimeMillis() - start);
+    }
+
+    /**
+     * Método que analisa todas as partidas do arquivo de entrada
+     * @param input O arquivo de partidas; lido como GZIP se o nome terminar em .gz
+     * @param output O arquivo da análise; gravado como GZIP se o nome terminar em .gz
+     * @return O número de partidas lidas
+     * @exception IOException Caso um dos arquivos não possa ser lido ou escrito
+     * @exception InterruptedException Caso a thread seja interrompida
+     */
+    public long run(Path input, Path output) throws IOException, InterruptedException {
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        Deque<Future<String>> window = new ArrayDeque<>();
+        int windowSize = threads * 4;
+        long games = 0;
+        try (BufferedReader reader = open(input); BufferedWriter writer = create(output)) {
+            writer.write("jogo\tlance\tmovimento\tavaliação\tperda\tmarca");
+            writer.newLine();
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isBlank() || line.startsWith("#")) {
+                    continue;
+                }
+                String record = line;
+                long game = ++games;
+                window.add(executor.submit(() -> analyze(game, record)));
+                if (window.size() >= windowSize) {
+                    writer.write(take(window));
+                }
+            }
+            while (!window.isEmpty()) {
+                writer.write(take(window));
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        return games;
+    }
+
+    private static String take(Deque<Future<String>> window) throws InterruptedException, IOException {
+        try {
+            return window.poll().get();
+        } catch (ExecutionException e) {
+            throw new IOException("Falha na análise", e.getCause());
+        }
+    }
+
+    /**
+     * Método que analisa uma partida. Cada posição é buscada uma vez: a perda de um lance é a avaliação da
+     * posição antes dele somada à avaliação da posição seguinte, que é do ponto de vista do adversário
+     * @param game O número da partida no arquivo
+     * @param line A partida em texto
+     * @return As linhas da análise
+     */
+    private String analyze(long game, String line) {
+        StringBuilder out = new StringBuilder();
+        GameRecord record;
+        try {
+            record = GameRecord.parse(line);
+        } catch (IllegalArgumentException | OnitamaGameException e) {
+            out.append(game).append("\t0\t-\t-\t-\tilegal: ").append(e.getMessage()).append('\n');
+            return out.toString();
+        }
+
+        Engine engine = engines.get();
+        engine.clearTable();
+        GameState state = record.getStart();
+        int[] moves = record.getMoves();
+        int score = evaluate(engine, state);
+        for (int i = 0; i < moves.length; i++) {
+            String move = state.moveToNotation(moves[i]);
+            state.makeMove(moves[i]);
+            int next = evaluate(engine, state);
+            int loss = Math.max(0, score + next);
+            out.append(game).append('\t').append(i + 1).append('\t').append(move).append('\t')
+                .append(score).append('\t').append(loss).append('\t')
+                .append(loss >= blunder ? "erro" : "").append('\n');
+            score = next;
+        }
+        return out.toString();
+    }
+
+    private int evaluate(Engine engine, GameState state) {
+        if (state.winner() >= 0) {
+            return -Engine.WIN;
+        }
+        return engine.search(state, depth).getScore();
+    }
+
+    private static BufferedReader open(Path path) throws IOException {
+        InputStream in = Files.newInputStream(path);
+        if (path.toString().endsWith(".gz")) {
+            in = new GZIPInputStream(in, 1 << 16);
+        }
+        return new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8), 1 << 16);
+    }
+
+    private static BufferedWriter create(Path path) throws IOException {
+        OutputStream out = Files.newOutputStream(path);
+        if (path.toString().endsWith(".gz")) {
+            out = new GZIPOutputStream(out, 1 << 16);
+        }
+        return new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), 1 << 16);
+    }
+}
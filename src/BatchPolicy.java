@@ -0,0 +1,49 @@
+import java.util.SplittableRandom;
+
+/**
+ * Interface das políticas que escolhem os movimentos das partidas de BatchSimulator. A política recebe os
+ * movimentos legais já gerados, codificados como em GameState, e pode consultar o estado da partida pelos
+ * métodos de leitura do simulador.
+ */
+public interface BatchPolicy {
+
+    /**
+     * Política que escolhe um movimento legal qualquer, com a mesma chance para todos
+     */
+    BatchPolicy RANDOM = (batch, game, moves, count, random) -> random.nextInt(count);
+
+    /**
+     * Política que vence na hora quando pode (capturando o mestre ou levando o mestre ao templo), senão
+     * captura uma peça quando pode, e senão joga ao acaso
+     */
+    BatchPolicy GREEDY = (batch, game, moves, count, random) -> {
+        int side = batch.getSideToMove(game);
+        int enemy = batch.getPieces(game, 1 - side);
+        int enemyMaster = batch.getMaster(game, 1 - side);
+        int master = batch.getMaster(game, side);
+        int temple = GameState.targetTemple(side);
+        int capture = -1;
+        int captures = 0;
+        for (int i = 0; i < count; i++) {
+            int to = GameState.moveTo(moves[i]);
+            if (to == enemyMaster || (to == temple && GameState.moveFrom(moves[i]) == master)) {
+                return i;
+            }
+            if ((enemy & (1 << to)) != 0 && random.nextInt(++captures) == 0) {
+                capture = i;
+            }
+        }
+        return capture >= 0 ? capture : random.nextInt(count);
+    };
+
+    /**
+     * Método que escolhe o movimento de uma partida
+     * @param batch O simulador
+     * @param game O número da partida no simulador
+     * @param moves Os movimentos legais de quem joga
+     * @param count O número de movimentos, pelo menos 1
+     * @param random O gerador do simulador
+     * @return A posição do movimento escolhido em moves
+     */
+    int choose(BatchSimulator batch, int game, int[] moves, int count, SplittableRandom random);
+}
@@ -0,0 +1,395 @@
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+import enums.Color;
+
+/**
+ * Simulador que joga muitas partidas ao mesmo tempo, um movimento de cada partida por passo, para rollouts e
+ * geração de dados. O estado de todas as partidas fica em vetores de tipos primitivos, um vetor por campo
+ * (peças de cada cor, mestres, cartas de cada posição, quem joga, número de movimentos), sem objetos por
+ * partida: cada passo percorre os vetores em ordem, e as partidas terminadas saem da lista de ativas sem
+ * mudar a ordem das demais.
+ * <p>
+ * As regras e a codificação dos movimentos são as de GameState. Uma partida termina com vitória, sem
+ * movimentos legais (empate) ou ao atingir o limite de movimentos (empate); repetições não são conferidas.
+ * As cartas precisam estar no catálogo de CardRegistry.
+ * <p>
+ * Uso: java BatchSimulator [--games N] [--batch N] [--policy random|greedy] [--seed N]
+ */
+public class BatchSimulator {
+
+    /**
+     * Resultado de uma partida que ainda não terminou. As terminadas têm GameState.RED, GameState.BLUE ou
+     * Match.DRAW
+     */
+    public static final int RUNNING = -2;
+
+    private final int size;
+    private final int maxPlies;
+    private final BatchPolicy policy;
+    private final SplittableRandom random;
+
+    private final int[] pieces;
+    private final byte[] masters;
+    private final byte[] cards;
+    private final byte[] sideToMove;
+    private final int[] plies;
+    private final int[] results;
+
+    private final int[] active;
+    private int activeCount;
+
+    private final int[] tableStart;
+    private final int[] tableMoves;
+    private final int[] moves = new int[GameState.MAX_MOVES];
+
+    /**
+     * Construtor que reserva os vetores de todas as partidas. Nenhuma partida começa até start ou deal
+     * @param size Número de partidas
+     * @param maxPlies Número de movimentos depois do qual uma partida termina empatada
+     * @param policy A política que escolhe os movimentos
+     * @param seed Semente do gerador passado à política e usado por deal
+     */
+    public BatchSimulator(int size, int maxPlies, BatchPolicy policy, long seed) {
+        this.size = size;
+        this.maxPlies = maxPlies;
+        this.policy = policy;
+        this.random = new SplittableRandom(seed);
+        pieces = new int[2 * size];
+        masters = new byte[2 * size];
+        cards = new byte[5 * size];
+        sideToMove = new byte[size];
+        plies = new int[size];
+        results = new int[size];
+        active = new int[size];
+        Arrays.fill(results, Match.DRAW);
+
+        // os movimentos de cada carta a partir de cada casa, em um único vetor: os de (carta, casa) vão de
+        // tableStart[carta * 25 + casa] até tableStart[carta * 25 + casa + 1]
+        CardRegistry registry = CardRegistry.getDefault();
+        tableStart = new int[registry.size() * 25 + 1];
+        int total = 0;
+        for (int card = 0; card < registry.size(); card++) {
+            for (int[] fromSquare : registry.moveTable(card)) {
+                total += fromSquare.length;
+            }
+        }
+        tableMoves = new int[total];
+        int next = 0;
+        for (int card = 0; card < registry.size(); card++) {
+            int[][] table = registry.moveTable(card);
+            for (int from = 0; from < 25; from++) {
+                tableStart[card * 25 + from] = next;
+                System.arraycopy(table[from], 0, tableMoves, next, table[from].length);
+                next += table[from].length;
+            }
+        }
+        tableStart[registry.size() * 25] = next;
+    }
+
+    public static void main(String[] args) {
+        long games = 100_000;
+        int batchSize = 4096;
+        BatchPolicy policy = BatchPolicy.RANDOM;
+        long seed = System.nanoTime();
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--games": games = Long.parseLong(args[++i]); break;
+                case "--batch": batchSize = Integer.parseInt(args[++i]); break;
+                case "--policy": policy = args[++i].equals("greedy") ? BatchPolicy.GREEDY : BatchPolicy.RANDOM; break;
+                case "--seed": seed = Long.parseLong(args[++i]); break;
+                default:
+                    System.out.println("Uso: java BatchSimulator [--games N] [--batch N] [--policy random|greedy] [--seed N]");
+                    return;
+            }
+        }
+
+        long[] wins = new long[3];
+        long totalPlies = 0;
+        long start = System.nanoTime();
+        BatchSimulator batch = new BatchSimulator(batchSize, Match.MOVE_LIMIT, policy, seed);
+        for (long played = 0; played < games; played += batchSize) {
+            // o último lote joga só as partidas que faltam
+            int count = (int) Math.min(batchSize, games - played);
+            batch.deal(count);
+            batch.run();
+            int[] results = batch.getResults();
+            int[] lengths = batch.getPlies();
+            for (int game = 0; game < count; game++) {
+                wins[results[game] + 1]++;
+                totalPlies += lengths[game];
+            }
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+        long total = wins[0] + wins[1] + wins[2];
+        System.out.printf("%d partidas: vermelho %d, azul %d, empates %d, %.1f movimentos por partida%n",
+            total, wins[GameState.RED + 1], wins[GameState.BLUE + 1], wins[0], (double) totalPlies / total);
+        System.out.printf("%.0f partidas por segundo%n", total / seconds);
+    }
+
+    /**
+     * Método que começa todas as partidas na posição inicial de baralhos sorteados pelo gerador do simulador
+     */
+    public void deal() {
+        deal(size);
+    }
+
+    /**
+     * Método que começa as primeiras partidas do simulador na posição inicial de baralhos sorteados pelo
+     * gerador do simulador. As demais ficam vazias, como partidas empatadas sem movimentos, e podem ser
+     * começadas depois com start
+     * @param count O número de partidas, de 0 a size()
+     */
+    public void deal(int count) {
+        if (count < 0 || count > size) {
+            throw new IllegalArgumentException("Número de partidas inválido: " + count);
+        }
+        for (int game = count; game < size; game++) {
+            plies[game] = 0;
+            results[game] = Match.DRAW;
+        }
+        for (int game = 0; game < count; game++) {
+            Card[] deck = Card.deal(random);
+            pieces[GameState.RED * size + game] = 0b11111 << 20;
+            pieces[GameState.BLUE * size + game] = 0b11111;
+            masters[GameState.RED * size + game] = 22;
+            masters[GameState.BLUE * size + game] = 2;
+            cards[GameState.TABLE * size + game] = (byte) Card.indexOf(deck[0]);
+            for (int slot = 0; slot < 4; slot++) {
+                cards[slot * size + game] = (byte) Card.indexOf(deck[slot + 1]);
+            }
+            sideToMove[game] = (byte) (deck[0].getColor() == Color.BLUE ? GameState.BLUE : GameState.RED);
+            plies[game] = 0;
+            results[game] = RUNNING;
+            active[game] = game;
+        }
+        activeCount = count;
+    }
+
+    /**
+     * Método que começa uma partida numa posição
+     * @param game O número da partida, de 0 a size() - 1
+     * @param state A posição; não é alterada. O limite de movimentos conta a partir dela
+     * @exception exceptions.InvalidCardException Caso alguma carta não esteja no catálogo
+     */
+    public void start(int game, GameState state) {
+        for (int color = 0; color < 2; color++) {
+            pieces[color * size + game] = state.getPieces(color);
+            masters[color * size + game] = (byte) state.getMaster(color);
+        }
+        for (int slot = 0; slot < 5; slot++) {
+            cards[slot * size + game] = (byte) Card.indexOf(state.getCard(slot));
+        }
+        sideToMove[game] = (byte) state.getSideToMove();
+        plies[game] = 0;
+        int winner = winner(game);
+        boolean wasActive = results[game] == RUNNING;
+        results[game] = winner >= 0 ? winner : RUNNING;
+        if (wasActive) {
+            if (winner >= 0) {
+                removeFinished();
+            }
+        } else if (winner < 0) {
+            // a lista de ativas fica em ordem crescente, para que cada passo percorra os vetores em ordem
+            int index = activeCount++;
+            while (index > 0 && active[index - 1] > game) {
+                active[index] = active[index - 1];
+                index--;
+            }
+            active[index] = game;
+        }
+    }
+
+    /**
+     * Método que faz um movimento em cada partida em andamento
+     * @return O número de partidas que terminaram neste passo
+     */
+    public int step() {
+        int remaining = 0;
+        for (int i = 0; i < activeCount; i++) {
+            int game = active[i];
+            int count = generateMoves(game, moves);
+            if (count == 0) {
+                results[game] = Match.DRAW;
+                continue;
+            }
+            makeMove(game, moves[policy.choose(this, game, moves, count, random)]);
+            int winner = winner(game);
+            if (winner >= 0) {
+                results[game] = winner;
+            } else if (plies[game] >= maxPlies) {
+                results[game] = Match.DRAW;
+            } else {
+                active[remaining++] = game;
+            }
+        }
+        int finished = activeCount - remaining;
+        activeCount = remaining;
+        return finished;
+    }
+
+    /**
+     * Método que joga todas as partidas em andamento até o fim
+     * @return O número de passos
+     */
+    public int run() {
+        int steps = 0;
+        while (activeCount > 0) {
+            step();
+            steps++;
+        }
+        return steps;
+    }
+
+    /**
+     * Método que gera os movimentos de quem joga numa partida, na mesma ordem de GameState.generateMoves
+     * @param game O número da partida
+     * @param moves Vetor com pelo menos GameState.MAX_MOVES posições que recebe os movimentos
+     * @return O número de movimentos gerados
+     */
+    public int generateMoves(int game, int[] moves) {
+        int side = sideToMove[game];
+        int own = pieces[side * size + game];
+        int count = 0;
+        for (int hand = 0; hand < 2; hand++) {
+            int card = cards[(side * 2 + hand) * size + game];
+            int handBit = hand << 10;
+            for (int rest = own; rest != 0; rest &= rest - 1) {
+                int from = card * 25 + Integer.numberOfTrailingZeros(rest);
+                int end = tableStart[from + 1];
+                for (int k = tableStart[from]; k < end; k++) {
+                    int move = tableMoves[k];
+                    if ((own & (1 << GameState.moveTo(move))) == 0) {
+                        moves[count++] = move | handBit;
+                    }
+                }
+            }
+        }
+        return count;
+    }
+
+    private void makeMove(int game, int move) {
+        int side = sideToMove[game];
+        int own = side * size + game;
+        int enemy = (1 - side) * size + game;
+        int from = GameState.moveFrom(move);
+        int to = GameState.moveTo(move);
+        int toBit = 1 << to;
+        if ((pieces[enemy] & toBit) != 0) {
+            pieces[enemy] ^= toBit;
+            if (masters[enemy] == to) {
+                masters[enemy] = -1;
+            }
+        }
+        pieces[own] ^= (1 << from) | toBit;
+        if (masters[own] == from) {
+            masters[own] = (byte) to;
+        }
+        int slot = (side * 2 + GameState.moveHand(move)) * size + game;
+        int table = GameState.TABLE * size + game;
+        byte used = cards[slot];
+        cards[slot] = cards[table];
+        cards[table] = used;
+        sideToMove[game] = (byte) (1 - side);
+        plies[game]++;
+    }
+
+    private int winner(int game) {
+        int red = masters[GameState.RED * size + game];
+        int blue = masters[GameState.BLUE * size + game];
+        if (blue < 0 || red == GameState.targetTemple(GameState.RED)) {
+            return GameState.RED;
+        }
+        if (red < 0 || blue == GameState.targetTemple(GameState.BLUE)) {
+            return GameState.BLUE;
+        }
+        return -1;
+    }
+
+    private void removeFinished() {
+        int remaining = 0;
+        for (int i = 0; i < activeCount; i++) {
+            if (results[active[i]] == RUNNING) {
+                active[remaining++] = active[i];
+            }
+        }
+        activeCount = remaining;
+    }
+
+    /**
+     * Método que devolve o resultado de todas as partidas de uma vez
+     * @return Para cada partida, GameState.RED, GameState.BLUE, Match.DRAW ou RUNNING
+     */
+    public int[] getResults() {
+        return results.clone();
+    }
+
+    /**
+     * Método que devolve o número de movimentos jogados em cada partida
+     * @return Para cada partida, os movimentos desde start
+     */
+    public int[] getPlies() {
+        return plies.clone();
+    }
+
+    /**
+     * Método que devolve uma partida como GameState, por exemplo para analisá-la com o motor
+     * @param game O número da partida
+     * @return A posição atual da partida, sem histórico
+     */
+    public GameState toState(int game) {
+        long board = pieces[game] | ((long) pieces[size + game] << 25)
+            | ((long) masterRank(game, GameState.RED) << 50) | ((long) masterRank(game, GameState.BLUE) << 53)
+            | ((long) sideToMove[game] << 56);
+        long packedCards = 0;
+        for (int slot = 0; slot < 5; slot++) {
+            packedCards |= (long) cards[slot * size + game] << (slot * 6);
+        }
+        return GameState.unpack(board, packedCards);
+    }
+
+    private int masterRank(int game, int color) {
+        int master = masters[color * size + game];
+        return master < 0 ? 7 : Integer.bitCount(pieces[color * size + game] & ((1 << master) - 1));
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Método que devolve o número de partidas em andamento
+     * @return O número de partidas que ainda não terminaram
+     */
+    public int getActive() {
+        return activeCount;
+    }
+
+    public int getSideToMove(int game) {
+        return sideToMove[game];
+    }
+
+    public int getPieces(int game, int color) {
+        return pieces[color * size + game];
+    }
+
+    /**
+     * Método que devolve a casa do mestre de uma cor numa partida
+     * @param game O número da partida
+     * @param color GameState.RED ou GameState.BLUE
+     * @return A casa do mestre, ou -1 se ele foi capturado
+     */
+    public int getMaster(int game, int color) {
+        return masters[color * size + game];
+    }
+
+    /**
+     * Método que devolve uma carta de uma partida
+     * @param game O número da partida
+     * @param slot A posição da carta, como em GameState.getCard
+     * @return A carta
+     */
+    public Card getCard(int game, int slot) {
+        return Card.byIndex(cards[slot * size + game]);
+    }
+}
@@ -1,7 +1,8 @@
 import java.util.Arrays;
-import java.util.Random;
+import java.util.SplittableRandom;
 
 import enums.Color;
+import exceptions.InvalidCardException;
 
 /**
  * Classe que contém informações das cartas
@@ -51,35 +52,90 @@ public class Card {
     }
 
     /**
-     * Método que cria todas as cartas do jogo, embaralha-as e devolve as 5 que serão utilizadas na partida.
-     * @return Vetor de cartas com todas as cartas do jogo
+     * Método que devolve as cartas sorteadas nas partidas (as dos pacotes escolhidos em CardRegistry),
+     * sempre na mesma ordem
+     * @return Vetor com as cartas do jogo; 16 no jogo básico
      */
-    public static Card[] createCards() {
-       Card[] allCards = {
-        new Card("Tiger", Color.BLUE, new Position[]{new Position(-2, 0), new Position(1, 0)}),
-        new Card("Dragon", Color.RED, new Position[]{new Position(1, 1), new Position(-1, 2), new Position(1,-1), new Position(-1, -2)}),
-        new Card("Frog", Color.RED, new Position[]{new Position(0, -2), new Position(-1, -1), new Position(1, 1)}),
-        new Card("Rabbit", Color.BLUE, new Position[]{new Position(1, -1), new Position(-1, 1), new Position(0, 2)}),
-        new Card("Crab", Color.BLUE, new Position[]{new Position(0, -2), new Position(0, 2), new Position(-1, 0)}),
-        new Card("Elephant", Color.RED, new Position[]{new Position(0, -1), new Position(0, 1), new Position(-1, -1), new Position(-1, 1)}),
-        new Card("Goose", Color.BLUE, new Position[]{new Position(-1, -1), new Position(0, -1), new Position(0, 1), new Position(1, 1)}),
-        new Card("Rooster", Color.RED, new Position[]{new Position(0, -1), new Position(1, -1), new Position(0, 1), new Position(-1, 1)})
-    };
+    public static Card[] allCards() {
+        return CardRegistry.getDefault().getPool();
+    }
 
-    //embaralhar
+    /**
+     * Método que procura uma carta do jogo pelo nome
+     * @param name Nome da carta
+     * @return A carta com o nome indicado
+     * @exception InvalidCardException Caso não exista carta com esse nome
+     */
+    public static Card byName(String name) {
+        CardRegistry registry = CardRegistry.getDefault();
+        int index = registry.indexOf(name);
+        if (index < 0) {
+            throw new InvalidCardException("Carta desconhecida: " + name);
+        }
+        return registry.get(index);
+    }
 
-    Random random = new Random();
-    for (int i = allCards.length - 1; i > 0; i--) {
-        int j = random.nextInt(i + 1);
-        Card temp = allCards[i];
-        allCards[i] = allCards[j];
-        allCards[j] = temp;
+    /**
+     * Método que devolve o número de uma carta, isto é, a sua posição no arquivo de cartas de CardRegistry
+     * @param card A carta
+     * @return O número da carta
+     * @exception InvalidCardException Caso a carta não seja do jogo
+     */
+    public static int indexOf(Card card) {
+        int index = CardRegistry.getDefault().indexOf(card.getName());
+        if (index < 0) {
+            throw new InvalidCardException("Carta desconhecida: " + card.getName());
+        }
+        return index;
     }
 
-    Card[] selectedCards = new Card[5];
-    System.arraycopy(allCards, 0, selectedCards, 0, 5);
+    /**
+     * Método que devolve a carta com um determinado número
+     * @param index O número da carta, como devolvido por indexOf
+     * @return A carta
+     * @exception InvalidCardException Caso não exista carta com esse número
+     */
+    public static Card byIndex(int index) {
+        Card card = CardRegistry.getDefault().get(index);
+        if (card == null) {
+            throw new InvalidCardException("Carta desconhecida: " + index);
+        }
+        return card;
+    }
 
-    return selectedCards;
+    /**
+     * Método que sorteia as 5 cartas que serão utilizadas na partida, sem semente
+     * @return Vetor com as 5 cartas, na ordem de GameState(Card[])
+     */
+    public static Card[] createCards() {
+        return deal(new SplittableRandom());
+    }
+
+    /**
+     * Método que sorteia as 5 cartas de uma partida a partir de uma semente. A mesma semente sempre produz
+     * o mesmo baralho para o mesmo arquivo de cartas, o que permite reproduzir partidas
+     * @param seed A semente
+     * @return Vetor com as 5 cartas, na ordem de GameState(Card[])
+     */
+    public static Card[] deal(long seed) {
+        return deal(new SplittableRandom(seed));
+    }
+
+    /**
+     * Método que sorteia as 5 cartas de uma partida entre as cartas do jogo
+     * @param random O gerador usado
+     * @return Vetor com as 5 cartas, na ordem de GameState(Card[])
+     */
+    public static Card[] deal(SplittableRandom random) {
+        Card[] cards = CardRegistry.getDefault().getPool();
+        // embaralhamento parcial de Fisher-Yates: só as 5 primeiras posições precisam ser sorteadas
+        for (int i = 0; i < 5; i++) {
+            int j = i + random.nextInt(cards.length - i);
+            Card temp = cards[i];
+            cards[i] = cards[j];
+            cards[j] = temp;
+        }
+        return Arrays.copyOf(cards, 5);
     }
 
     @Override
@@ -121,21 +177,34 @@ public class Card {
         System.out.println(); 
     }
 
+    /**
+     * Método que sorteia as 5 cartas da partida entre as cartas escolhidas pelo jogador, sem alterar o vetor recebido
+     * @param customDeck As cartas escolhidas, pelo menos 5
+     * @return Vetor com as 5 cartas, na ordem de GameState(Card[])
+     */
     public static Card [] pickCustomDeck(Card [] customDeck){
-        Random random = new Random();
-        for (int i = customDeck.length - 1; i > 0; i--) {
-            int j = random.nextInt(i + 1);
-            Card temp = customDeck[i];
-            customDeck[i] = customDeck[j];
-            customDeck[j] = temp;
+        return pickCustomDeck(customDeck, new SplittableRandom());
+    }
+
+    /**
+     * Método que sorteia as 5 cartas da partida entre as cartas escolhidas pelo jogador, sem alterar o vetor recebido
+     * @param customDeck As cartas escolhidas, pelo menos 5
+     * @param random O gerador usado
+     * @return Vetor com as 5 cartas, na ordem de GameState(Card[])
+     */
+    public static Card [] pickCustomDeck(Card [] customDeck, SplittableRandom random){
+        Card[] cards = customDeck.clone();
+        for (int i = 0; i < 5; i++) {
+            int j = i + random.nextInt(cards.length - i);
+            Card temp = cards[i];
+            cards[i] = cards[j];
+            cards[j] = temp;
         }
 
         Card[] selectedCards = new Card[5];
-        System.arraycopy(customDeck, 0, selectedCards, 0, 5);
+        System.arraycopy(cards, 0, selectedCards, 0, 5);
 
         return selectedCards;
     }
 
-    
-
 }
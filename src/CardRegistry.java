@@ -0,0 +1,294 @@
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import enums.Color;
+
+/**
+ * Catálogo das cartas do jogo, lido de um arquivo de definição dividido em pacotes (o jogo básico e as
+ * expansões). O formato está descrito no arquivo padrão, cards.txt. O número de cada carta é a sua ordem
+ * no arquivo e não muda quando pacotes são escolhidos ou deixados de fora.
+ * <p>
+ * O catálogo usado por Card vem de cards.txt, ou do arquivo indicado na propriedade onitama.cards. As cartas
+ * sorteadas nas partidas são as dos pacotes da propriedade onitama.packs (separados por vírgula), ou só as do
+ * pacote base. Por exemplo: java -Donitama.cards=cartas.txt -Donitama.packs=base,expansao Main
+ * <p>
+ * Se cards.txt não estiver no classpath (por exemplo, quando só os .class foram copiados para bin), é usada
+ * uma cópia embutida do pacote base, com as cartas na mesma ordem.
+ */
+public class CardRegistry {
+
+    /**
+     * Número máximo de cartas: GameState.packCards guarda o número de cada carta em 6 bits
+     */
+    public static final int MAX_CARDS = 64;
+
+    /**
+     * Número máximo de deslocamentos de uma carta: os movimentos guardam o índice do deslocamento em 2 bits
+     */
+    public static final int MAX_OFFSETS = 4;
+
+    public static final String DEFAULT_PACK = "base";
+
+    /**
+     * Pacote base usado quando cards.txt não é encontrado; deve ter as mesmas cartas, na mesma ordem
+     */
+    private static final String BUILT_IN_CARDS = String.join("\n",
+        "[base]",
+        "Tiger    BLUE  -2,0  1,0",
+        "Dragon   RED    1,1 -1,2  1,-1 -1,-2",
+        "Frog     RED    0,-2 -1,-1  1,1",
+        "Rabbit   BLUE   1,-1 -1,1  0,2",
+        "Crab     BLUE   0,-2  0,2 -1,0",
+        "Elephant RED    0,-1  0,1 -1,-1 -1,1",
+        "Goose    BLUE  -1,-1  0,-1  0,1  1,1",
+        "Rooster  RED    0,-1  1,-1  0,1 -1,1",
+        "Monkey   BLUE  -1,-1 -1,1  1,-1  1,1",
+        "Mantis   RED   -1,-1 -1,1  1,0",
+        "Horse    RED   -1,0  0,-1  1,0",
+        "Ox       BLUE  -1,0  0,1  1,0",
+        "Crane    BLUE  -1,0  1,-1  1,1",
+        "Boar     RED   -1,0  0,-1  0,1",
+        "Eel      BLUE  -1,-1  1,-1  0,1",
+        "Cobra    RED    0,-1 -1,1  1,1");
+
+    private final Card[] cards;
+    private final Map<String, Integer> indexes = new HashMap<>();
+    private final Map<String, List<Card>> packs;
+    private final Card[] pool;
+    private final AtomicReferenceArray<int[][]> moveTables;
+
+    private CardRegistry(List<Card> cards, Map<String, List<Card>> packs, List<String> selected) {
+        this.cards = cards.toArray(new Card[0]);
+        for (int i = 0; i < this.cards.length; i++) {
+            indexes.put(this.cards[i].getName(), i);
+        }
+        this.packs = packs;
+        List<Card> chosen = new ArrayList<>();
+        for (String pack : selected) {
+            List<Card> members = packs.get(pack);
+            if (members == null) {
+                throw new IllegalArgumentException("Pacote de cartas desconhecido: " + pack);
+            }
+            chosen.addAll(members);
+        }
+        if (chosen.size() < 5) {
+            throw new IllegalArgumentException("Os pacotes escolhidos têm menos de 5 cartas: " + selected);
+        }
+        this.pool = chosen.toArray(new Card[0]);
+        this.moveTables = new AtomicReferenceArray<>(this.cards.length);
+    }
+
+    /**
+     * Método que lê um arquivo de definição de cartas
+     * @param file O arquivo
+     * @param selected Os pacotes cujas cartas serão sorteadas
+     * @return O catálogo
+     * @exception IOException Caso o arquivo não possa ser lido
+     * @exception IllegalArgumentException Caso o arquivo não esteja no formato esperado, com o número da linha
+     */
+    public static CardRegistry load(Path file, List<String> selected) throws IOException {
+        try (Reader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            return load(reader, selected);
+        }
+    }
+
+    /**
+     * Método que lê uma definição de cartas
+     * @param reader A definição
+     * @param selected Os pacotes cujas cartas serão sorteadas
+     * @return O catálogo
+     * @exception IOException Caso a definição não possa ser lida
+     * @exception IllegalArgumentException Caso a definição não esteja no formato esperado, com o número da linha
+     */
+    public static CardRegistry load(Reader reader, List<String> selected) throws IOException {
+        BufferedReader lines = new BufferedReader(reader);
+        List<Card> cards = new ArrayList<>();
+        Map<String, List<Card>> packs = new LinkedHashMap<>();
+        List<Card> pack = null;
+        String line;
+        int number = 0;
+        while ((line = lines.readLine()) != null) {
+            number++;
+            line = line.trim();
+            if (line.isEmpty() || line.startsWith("#")) {
+                continue;
+            }
+            if (line.startsWith("[")) {
+                if (!line.endsWith("]") || line.length() < 3) {
+                    throw new IllegalArgumentException("Linha " + number + ": nome de pacote inválido: " + line);
+                }
+                pack = packs.computeIfAbsent(line.substring(1, line.length() - 1).trim(), name -> new ArrayList<>());
+                continue;
+            }
+            if (pack == null) {
+                throw new IllegalArgumentException("Linha " + number + ": carta fora de um pacote");
+            }
+            Card card;
+            try {
+                card = parseCard(line);
+            } catch (RuntimeException e) {
+                throw new IllegalArgumentException("Linha " + number + ": " + e.getMessage());
+            }
+            for (Card other : cards) {
+                if (other.getName().equals(card.getName())) {
+                    throw new IllegalArgumentException("Linha " + number + ": carta repetida: " + card.getName());
+                }
+            }
+            if (cards.size() == MAX_CARDS) {
+                throw new IllegalArgumentException("Linha " + number + ": mais de " + MAX_CARDS + " cartas");
+            }
+            cards.add(card);
+            pack.add(card);
+        }
+        for (Map.Entry<String, List<Card>> entry : packs.entrySet()) {
+            entry.setValue(Collections.unmodifiableList(entry.getValue()));
+        }
+        return new CardRegistry(cards, packs, selected);
+    }
+
+    private static Card parseCard(String line) {
+        String[] fields = line.split("\\s+");
+        if (fields.length < 3) {
+            throw new IllegalArgumentException("a carta precisa de nome, cor e deslocamentos: " + line);
+        }
+        if (fields.length - 2 > MAX_OFFSETS) {
+            throw new IllegalArgumentException("mais de " + MAX_OFFSETS + " deslocamentos: " + fields[0]);
+        }
+        Color color = Color.valueOf(fields[1]);
+        if (color == Color.NONE) {
+            throw new IllegalArgumentException("cor inválida: " + fields[1]);
+        }
+        Position[] positions = new Position[fields.length - 2];
+        for (int i = 0; i < positions.length; i++) {
+            String[] parts = fields[i + 2].split(",");
+            if (parts.length != 2) {
+                throw new IllegalArgumentException("deslocamento inválido: " + fields[i + 2]);
+            }
+            int row = Integer.parseInt(parts[0]);
+            int col = Integer.parseInt(parts[1]);
+            if (Math.abs(row) > 4 || Math.abs(col) > 4 || (row == 0 && col == 0)) {
+                throw new IllegalArgumentException("deslocamento inválido: " + fields[i + 2]);
+            }
+            positions[i] = new Position(row, col);
+        }
+        return new Card(fields[0], color, positions);
+    }
+
+    /**
+     * Método que devolve o catálogo usado pelo jogo, lido na primeira chamada
+     * @return O catálogo
+     * @exception IllegalStateException Caso o arquivo de cartas seja inválido, ou o indicado em onitama.cards não exista
+     */
+    public static CardRegistry getDefault() {
+        return Holder.DEFAULT;
+    }
+
+    private static class Holder {
+
+        static final CardRegistry DEFAULT = loadDefault();
+
+        private static CardRegistry loadDefault() {
+            List<String> selected = new ArrayList<>();
+            for (String pack : System.getProperty("onitama.packs", DEFAULT_PACK).split(",")) {
+                if (!pack.isBlank()) {
+                    selected.add(pack.trim());
+                }
+            }
+            String file = System.getProperty("onitama.cards");
+            try {
+                if (file != null) {
+                    return load(Paths.get(file), selected);
+                }
+                InputStream stream = CardRegistry.class.getResourceAsStream("/cards.txt");
+                if (stream == null) {
+                    return load(new StringReader(BUILT_IN_CARDS), selected);
+                }
+                try (Reader reader = new InputStreamReader(stream, StandardCharsets.UTF_8)) {
+                    return load(reader, selected);
+                }
+            } catch (IOException | IllegalArgumentException e) {
+                throw new IllegalStateException("Não foi possível ler as cartas: " + e.getMessage(), e);
+            }
+        }
+    }
+
+    /**
+     * Método que devolve as cartas sorteadas nas partidas, isto é, as dos pacotes escolhidos
+     * @return Um vetor novo com as cartas, na ordem do arquivo
+     */
+    public Card[] getPool() {
+        return pool.clone();
+    }
+
+    /**
+     * Método que devolve as cartas de um pacote
+     * @param pack O nome do pacote
+     * @return As cartas, ou uma lista vazia se o pacote não existir
+     */
+    public List<Card> getPack(String pack) {
+        return packs.getOrDefault(pack, Collections.emptyList());
+    }
+
+    /**
+     * Método que devolve os nomes de todos os pacotes do arquivo
+     * @return Os nomes, na ordem do arquivo
+     */
+    public List<String> getPacks() {
+        return new ArrayList<>(packs.keySet());
+    }
+
+    public int size() {
+        return cards.length;
+    }
+
+    /**
+     * Método que devolve o número de uma carta
+     * @param name O nome da carta
+     * @return O número da carta, ou -1 se ela não estiver no catálogo
+     */
+    public int indexOf(String name) {
+        Integer index = indexes.get(name);
+        return index == null ? -1 : index;
+    }
+
+    /**
+     * Método que devolve a carta com um determinado número
+     * @param index O número da carta
+     * @return A carta, ou null se o número estiver fora do catálogo
+     */
+    public Card get(int index) {
+        return index >= 0 && index < cards.length ? cards[index] : null;
+    }
+
+    /**
+     * Método que devolve a tabela de movimentos de uma carta, montada na primeira chamada e compartilhada
+     * por todas as partidas
+     * @param index O número da carta
+     * @return Para cada casa de origem, os movimentos da carta que terminam dentro do tabuleiro
+     */
+    int[][] moveTable(int index) {
+        int[][] table = moveTables.get(index);
+        if (table == null) {
+            table = DeckTable.buildMoves(cards[index]);
+            if (!moveTables.compareAndSet(index, null, table)) {
+                table = moveTables.get(index);
+            }
+        }
+        return table;
+    }
+}
@@ -0,0 +1,102 @@
+import enums.Color;
+
+/**
+ * Classe que controla o relógio de cada jogador com incremento Fischer: cada jogador começa com um tempo
+ * total e ganha um acréscimo fixo a cada movimento concluído. Apenas um relógio corre por vez.
+ * Os métodos são sincronizados porque o relógio pode ser consultado por outra thread (por exemplo, o motor)
+ */
+public class Clock {
+
+    private final long[] remaining = new long[2];
+    private final long increment;
+    private Color running;
+    private long startedAt;
+
+    /**
+     * Construtor que define o tempo inicial e o incremento, iguais para os dois jogadores
+     * @param initialMillis Tempo inicial de cada jogador em milissegundos
+     * @param incrementMillis Tempo acrescentado após cada movimento em milissegundos
+     */
+    public Clock(long initialMillis, long incrementMillis) {
+        remaining[0] = initialMillis;
+        remaining[1] = initialMillis;
+        increment = incrementMillis;
+    }
+
+    /**
+     * Método que inicia o relógio de um jogador, parando o que estiver correndo sem dar incremento
+     * @param color Cor do jogador da vez
+     */
+    public synchronized void start(Color color) {
+        pause();
+        running = color;
+        startedAt = System.nanoTime();
+    }
+
+    /**
+     * Método que para o relógio que está correndo, descontando o tempo gasto, sem dar incremento
+     */
+    public synchronized void pause() {
+        if (running != null) {
+            remaining[index(running)] -= elapsed();
+            running = null;
+        }
+    }
+
+    /**
+     * Método que encerra o movimento do jogador da vez: para o relógio e soma o incremento,
+     * a não ser que o tempo já tenha acabado
+     */
+    public synchronized void stop() {
+        Color color = running;
+        pause();
+        if (color != null && remaining[index(color)] > 0) {
+            remaining[index(color)] += increment;
+        }
+    }
+
+    /**
+     * Método que devolve o tempo restante de um jogador, contando o tempo do movimento em andamento
+     * @param color Cor do jogador
+     * @return Tempo restante em milissegundos; zero ou negativo se o tempo acabou
+     */
+    public synchronized long getRemaining(Color color) {
+        long time = remaining[index(color)];
+        return color == running ? time - elapsed() : time;
+    }
+
+    /**
+     * Método que devolve o incremento dado após cada movimento
+     * @return O incremento em milissegundos
+     */
+    public long getIncrement() {
+        return increment;
+    }
+
+    /**
+     * Método que confere se o tempo de um jogador acabou
+     * @param color Cor do jogador
+     * @return Um booleano true caso o tempo tenha acabado e false caso contrário
+     */
+    public boolean hasFlagged(Color color) {
+        return getRemaining(color) <= 0;
+    }
+
+    private long elapsed() {
+        return (System.nanoTime() - startedAt) / 1_000_000;
+    }
+
+    private static int index(Color color) {
+        return color == Color.RED ? 0 : 1;
+    }
+
+    /**
+     * Método que formata um tempo em milissegundos como minutos e segundos
+     * @param millis O tempo em milissegundos
+     * @return Texto no formato m:ss
+     */
+    public static String format(long millis) {
+        long seconds = Math.max(0, millis) / 1000;
+        return String.format("%d:%02d", seconds / 60, seconds % 60);
+    }
+}
@@ -0,0 +1,141 @@
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Tabela de movimentos das 5 cartas de uma partida, usada por GameState para gerar movimentos sem
+ * recalcular os deslocamentos das cartas a cada posição. Há uma tabela por conjunto de 5 cartas, montada na
+ * primeira partida com essas cartas e compartilhada por todas as outras, em qualquer ordem de sorteio; as
+ * tabelas de cada carta, por sua vez, são compartilhadas entre todos os baralhos em que ela aparece.
+ * <p>
+ * Cada movimento da tabela já está codificado como em GameState.encodeMove, com a mão 0; falta apenas
+ * acrescentar a mão em que a carta está.
+ */
+public class DeckTable {
+
+    private static final ConcurrentHashMap<Long, DeckTable> CACHE = new ConcurrentHashMap<>();
+
+    private final Card[] cards;
+    private final int[] ids;
+    private final int[][][] moves;
+
+    private DeckTable(Card[] cards, int[] ids, int[][][] moves) {
+        this.cards = cards;
+        this.ids = ids;
+        this.moves = moves;
+    }
+
+    /**
+     * Método que devolve a tabela de um conjunto de cartas. Cartas fora do catálogo de CardRegistry
+     * também são aceitas, mas a tabela delas não é guardada
+     * @param deck As 5 cartas, em qualquer ordem
+     * @return A tabela
+     */
+    public static DeckTable of(Card[] deck) {
+        CardRegistry registry = CardRegistry.getDefault();
+        long key = 0;
+        for (Card card : deck) {
+            int index = registry.indexOf(card.getName());
+            if (index < 0 || !registry.get(index).equals(card)) {
+                return build(deck, null);
+            }
+            key |= 1L << index;
+        }
+        if (Long.bitCount(key) != deck.length) {
+            return build(deck, null);
+        }
+        DeckTable table = CACHE.get(key);
+        if (table == null) {
+            table = CACHE.computeIfAbsent(key, mask -> build(deck, registry));
+        }
+        return table;
+    }
+
+    private static DeckTable build(Card[] deck, CardRegistry registry) {
+        Card[] cards = deck.clone();
+        int[][][] moves = new int[cards.length][][];
+        int[] ids = new int[cards.length];
+        if (registry != null) {
+            Arrays.sort(cards, (a, b) -> registry.indexOf(a.getName()) - registry.indexOf(b.getName()));
+        }
+        for (int i = 0; i < cards.length; i++) {
+            if (registry != null) {
+                ids[i] = registry.indexOf(cards[i].getName());
+                moves[i] = registry.moveTable(ids[i]);
+            } else {
+                ids[i] = CardRegistry.MAX_CARDS + i;
+                moves[i] = buildMoves(cards[i]);
+            }
+        }
+        return new DeckTable(cards, ids, moves);
+    }
+
+    /**
+     * Método que calcula os movimentos de uma carta a partir de cada casa
+     * @param card A carta
+     * @return Para cada casa de origem, os movimentos que terminam dentro do tabuleiro, na ordem dos deslocamentos
+     */
+    static int[][] buildMoves(Card card) {
+        Position[] offsets = card.getPositions();
+        int[][] table = new int[25][];
+        int[] buffer = new int[offsets.length];
+        for (int from = 0; from < 25; from++) {
+            int count = 0;
+            for (int k = 0; k < offsets.length; k++) {
+                int toRow = from / 5 + offsets[k].getRow();
+                int toCol = from % 5 + offsets[k].getCol();
+                if (toRow >= 0 && toRow <= 4 && toCol >= 0 && toCol <= 4) {
+                    buffer[count++] = GameState.encodeMove(0, k, from, toRow * 5 + toCol);
+                }
+            }
+            table[from] = Arrays.copyOf(buffer, count);
+        }
+        return table;
+    }
+
+    /**
+     * Método que devolve a posição de uma carta nesta tabela
+     * @param card A carta
+     * @return A posição, de 0 a 4
+     * @exception IllegalArgumentException Caso a carta não faça parte do baralho
+     */
+    public int indexOf(Card card) {
+        for (int i = 0; i < cards.length; i++) {
+            if (cards[i] == card) {
+                return i;
+            }
+        }
+        for (int i = 0; i < cards.length; i++) {
+            if (cards[i].equals(card)) {
+                return i;
+            }
+        }
+        throw new IllegalArgumentException("A carta " + card.getName() + " não faz parte do baralho");
+    }
+
+    /**
+     * Método que devolve o número de uma carta do baralho: o de Card.indexOf, ou, para cartas fora do catálogo,
+     * CardRegistry.MAX_CARDS mais a posição da carta na tabela
+     * @param index A posição da carta, como devolvida por indexOf
+     * @return O número da carta, menor que CardRegistry.MAX_CARDS + 5
+     */
+    public int cardId(int index) {
+        return ids[index];
+    }
+
+    /**
+     * Método que devolve os movimentos de uma carta do baralho
+     * @param index A posição da carta, como devolvida por indexOf
+     * @return Para cada casa de origem, os movimentos da carta que terminam dentro do tabuleiro
+     */
+    int[][] moves(int index) {
+        return moves[index];
+    }
+
+    /**
+     * Método que devolve o número de baralhos com tabela guardada
+     * @return O número de baralhos
+     */
+    public static int cached() {
+        return CACHE.size();
+    }
+}
@@ -0,0 +1,432 @@
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+import enums.Color;
+
+/**
+ * Classe que escolhe movimentos com busca alfa-beta (negamax) em aprofundamento iterativo sobre GameState.
+ * Cada instância guarda os seus próprios vetores de trabalho, então deve ser usada por uma thread de cada vez.
+ * <p>
+ * Os movimentos de cada posição são ordenados para que os cortes aconteçam cedo: primeiro o movimento da tabela
+ * de transposição, depois os que vencem na hora (capturar o mestre ou levar o mestre ao templo), as outras
+ * capturas, os dois movimentos assassinos da profundidade (os últimos movimentos sem captura que causaram
+ * corte ali) e, por fim, os demais pela tabela de histórico, indexada pelo número da carta e pela casa de
+ * destino. Cada busca devolve estatísticas que mostram a qualidade dessa ordenação.
+ */
+public class Engine {
+
+    /**
+     * Avaliação de uma vitória no nó raiz. Vitórias mais distantes valem um pouco menos
+     */
+    public static final int WIN = 100000;
+
+    static final int MAX_PLY = 128;
+
+    private static final int INFINITY = 1000000;
+
+    private static final int TABLE_MOVE_SCORE = 1 << 30;
+    private static final int WINNING_SCORE = 1 << 29;
+    private static final int CAPTURE_SCORE = 1 << 28;
+    private static final int KILLER_SCORE = 1 << 27;
+    private static final int HISTORY_LIMIT = 1 << 20;
+
+    private final PositionEvaluator evaluator;
+    private final TimeManager timeManager;
+    private final TranspositionTable table;
+    private final int[][] moveBuffers = new int[MAX_PLY][GameState.MAX_MOVES];
+    private final int[][] scoreBuffers = new int[MAX_PLY][GameState.MAX_MOVES];
+    private final int[][] killers = new int[MAX_PLY][2];
+    private final int[][] history = new int[CardRegistry.MAX_CARDS + 5][25];
+
+    private volatile boolean stopped;
+    private volatile long softDeadline;
+    private volatile long hardDeadline;
+    private long nodes;
+    private long cutoffs;
+    private long firstMoveCutoffs;
+    private long tableProbes;
+    private long tableHits;
+
+    /**
+     * Construtor que usa a avaliação e a gestão de tempo padrão
+     */
+    public Engine() {
+        this(new Evaluator(), new TimeManager());
+    }
+
+    /**
+     * Construtor que define a avaliação e a gestão de tempo, com uma tabela de transposição de 16 MB
+     * @param evaluator A avaliação das posições
+     * @param timeManager A gestão de tempo usada quando a busca recebe um relógio
+     */
+    public Engine(PositionEvaluator evaluator, TimeManager timeManager) {
+        this(evaluator, timeManager, new TranspositionTable(16));
+    }
+
+    /**
+     * Construtor que define a avaliação, a gestão de tempo e a tabela de transposição
+     * @param evaluator A avaliação das posições
+     * @param timeManager A gestão de tempo usada quando a busca recebe um relógio
+     * @param table A tabela de transposição, mantida entre uma busca e outra
+     */
+    public Engine(PositionEvaluator evaluator, TimeManager timeManager, TranspositionTable table) {
+        this.evaluator = evaluator;
+        this.timeManager = timeManager;
+        this.table = table;
+    }
+
+    /**
+     * Método que busca até uma profundidade fixa, sem limite de tempo
+     * @param state A posição; é alterada durante a busca e restaurada no final
+     * @param depth A profundidade máxima
+     * @return O resultado da busca
+     */
+    public SearchResult search(GameState state, int depth) {
+        return search(state, depth, Long.MAX_VALUE, Long.MAX_VALUE);
+    }
+
+    /**
+     * Método que busca usando o tempo restante no relógio de quem joga
+     * @param state A posição; é alterada durante a busca e restaurada no final
+     * @param clock O relógio da partida
+     * @return O resultado da busca
+     */
+    public SearchResult search(GameState state, Clock clock) {
+        Color color = state.getSideToMove() == GameState.RED ? Color.RED : Color.BLUE;
+        long remaining = clock.getRemaining(color);
+        long soft = timeManager.softLimit(remaining, clock.getIncrement());
+        long hard = timeManager.hardLimit(remaining, clock.getIncrement());
+        return search(state, MAX_PLY - 1, soft, hard);
+    }
+
+    /**
+     * Método que começa em outra thread uma busca sem limite de tempo, que só termina com stop ou depois
+     * de receber limites com ponderHit. Usado para pensar durante o tempo do adversário. Os limites são
+     * definidos antes de a busca ser enviada, então stop e ponderHit valem mesmo que ela ainda não tenha começado
+     * @param state A posição, que passa a pertencer à busca
+     * @param executor Onde a busca será executada
+     * @return O resultado da última iteração completa, quando a busca terminar
+     */
+    public Future<SearchResult> ponder(GameState state, ExecutorService executor) {
+        long start = System.nanoTime();
+        begin(start, Long.MAX_VALUE, Long.MAX_VALUE);
+        return executor.submit(() -> iterate(state, MAX_PLY - 1, start));
+    }
+
+    /**
+     * Método que passa a limitar pelo relógio uma busca iniciada com ponder, contando o tempo
+     * a partir de agora. Pode ser chamado de outra thread
+     * @param clock O relógio da partida
+     * @param color A cor de quem joga na posição buscada
+     */
+    public void ponderHit(Clock clock, Color color) {
+        long now = System.nanoTime();
+        long remaining = clock.getRemaining(color);
+        hardDeadline = deadline(now, timeManager.hardLimit(remaining, clock.getIncrement()));
+        softDeadline = deadline(now, timeManager.softLimit(remaining, clock.getIncrement()));
+    }
+
+    /**
+     * Método que busca com limites de tempo explícitos
+     * @param state A posição; é alterada durante a busca e restaurada no final
+     * @param maxDepth A profundidade máxima
+     * @param softMillis Tempo depois do qual nenhuma nova iteração é começada
+     * @param hardMillis Tempo depois do qual a busca é interrompida
+     * @return O resultado da última iteração completa
+     */
+    public SearchResult search(GameState state, int maxDepth, long softMillis, long hardMillis) {
+        long start = System.nanoTime();
+        begin(start, softMillis, hardMillis);
+        return iterate(state, maxDepth, start);
+    }
+
+    private void begin(long start, long softMillis, long hardMillis) {
+        softDeadline = deadline(start, softMillis);
+        hardDeadline = deadline(start, hardMillis);
+        stopped = false;
+        nodes = 0;
+        cutoffs = 0;
+        firstMoveCutoffs = 0;
+        tableProbes = 0;
+        tableHits = 0;
+        for (int[] pair : killers) {
+            pair[0] = GameState.NO_MOVE;
+            pair[1] = GameState.NO_MOVE;
+        }
+        // o histórico vale para a partida toda, mas as buscas antigas pesam menos
+        for (int[] row : history) {
+            for (int to = 0; to < 25; to++) {
+                row[to] >>= 1;
+            }
+        }
+    }
+
+    private SearchResult iterate(GameState state, int maxDepth, long start) {
+        evaluator.reset(state);
+        int[] rootMoves = new int[GameState.MAX_MOVES];
+        int count = state.generateMoves(rootMoves);
+        if (count == 0 || state.winner() >= 0) {
+            return new SearchResult(GameState.NO_MOVE, evaluator.evaluate(state), 0, 0, 0);
+        }
+
+        long entry = table.probe(state.getHash());
+        int bestMove = entry != 0 && state.isLegal(TranspositionTable.entryMove(entry))
+            ? TranspositionTable.entryMove(entry) : rootMoves[0];
+        int bestScore = -INFINITY;
+        int completedDepth = 0;
+        long previousNodes = 0;
+        long lastNodes = 0;
+        int[] rootScores = new int[GameState.MAX_MOVES];
+        scoreMoves(state, rootMoves, rootScores, count, bestMove, 0);
+        for (int i = 0; i < count; i++) {
+            selectMove(rootMoves, rootScores, i, count);
+        }
+
+        for (int depth = 1; depth <= Math.min(maxDepth, MAX_PLY - 1); depth++) {
+            long iterationStart = nodes;
+            int alpha = -INFINITY;
+            int iterationBest = bestMove;
+            moveToFront(rootMoves, count, bestMove);
+            for (int i = 0; i < count; i++) {
+                state.makeMove(rootMoves[i]);
+                evaluator.moveMade(state);
+                int score = -negamax(state, depth - 1, -INFINITY, -alpha, 1);
+                state.undoMove();
+                evaluator.moveUndone(state);
+                // a profundidade 1 (só avaliações) sempre termina, para que o resultado tenha uma avaliação real
+                if (stopped && depth > 1) {
+                    break;
+                }
+                if (score > alpha) {
+                    alpha = score;
+                    iterationBest = rootMoves[i];
+                }
+            }
+            if (stopped && depth > 1) {
+                break;
+            }
+            bestMove = iterationBest;
+            bestScore = alpha;
+            completedDepth = depth;
+            previousNodes = lastNodes;
+            lastNodes = nodes - iterationStart;
+            table.store(state.getHash(), bestMove, TranspositionTable.toStored(bestScore, 0), depth, TranspositionTable.EXACT);
+            if (stopped || Math.abs(bestScore) >= WIN - MAX_PLY || System.nanoTime() >= softDeadline) {
+                break;
+            }
+        }
+
+        double branchingFactor = previousNodes > 0 ? (double) lastNodes / previousNodes
+            : completedDepth > 0 ? Math.pow(nodes, 1.0 / completedDepth) : 0;
+        return new SearchResult(bestMove, bestScore, completedDepth, nodes, (System.nanoTime() - start) / 1_000_000,
+            cutoffs, firstMoveCutoffs, tableProbes, tableHits, branchingFactor);
+    }
+
+    /**
+     * Método que interrompe a busca em andamento, que devolve o resultado da última iteração completa
+     * (a profundidade 1 é sempre completada). Pode ser chamado de outra thread
+     */
+    public void stop() {
+        stopped = true;
+    }
+
+    /**
+     * Método que apaga a tabela de transposição, por exemplo ao começar uma nova partida
+     */
+    public void clearTable() {
+        table.clear();
+    }
+
+    /**
+     * Método que prevê a resposta do adversário a um movimento, usando o melhor movimento guardado
+     * na tabela de transposição pela última busca
+     * @param state A posição antes do movimento; é restaurada no final
+     * @param move O movimento de quem joga
+     * @return A resposta esperada ou GameState.NO_MOVE caso a busca não tenha passado pela posição
+     */
+    public int predictReply(GameState state, int move) {
+        state.makeMove(move);
+        long entry = table.probe(state.getHash());
+        int reply = entry == 0 ? GameState.NO_MOVE : TranspositionTable.entryMove(entry);
+        if (reply != GameState.NO_MOVE && (state.winner() >= 0 || !state.isLegal(reply))) {
+            reply = GameState.NO_MOVE;
+        }
+        state.undoMove();
+        return reply;
+    }
+
+    private int negamax(GameState state, int depth, int alpha, int beta, int ply) {
+        nodes++;
+        if ((nodes & 1023) == 0 && System.nanoTime() >= hardDeadline) {
+            stopped = true;
+        }
+        if (stopped && depth > 0) {
+            return 0;
+        }
+
+        if (state.winner() >= 0) {
+            // quem acabou de jogar venceu
+            return -(WIN - ply);
+        }
+        if (state.repetitions() > 1) {
+            // uma posição que já apareceu na partida ou na própria busca vale empate
+            return 0;
+        }
+        if (depth == 0 || ply >= MAX_PLY - 1) {
+            return evaluator.evaluate(state);
+        }
+
+        long hash = state.getHash();
+        long entry = table.probe(hash);
+        int tableMove = GameState.NO_MOVE;
+        tableProbes++;
+        if (entry != 0) {
+            tableHits++;
+            tableMove = TranspositionTable.entryMove(entry);
+            if (TranspositionTable.entryDepth(entry) >= depth) {
+                int score = TranspositionTable.fromStored(TranspositionTable.entryScore(entry), ply);
+                int bound = TranspositionTable.entryBound(entry);
+                if (bound == TranspositionTable.EXACT
+                        || (bound == TranspositionTable.LOWER && score >= beta)
+                        || (bound == TranspositionTable.UPPER && score <= alpha)) {
+                    return score;
+                }
+            }
+        }
+
+        int[] moves = moveBuffers[ply];
+        int count = state.generateMoves(moves);
+        if (count == 0) {
+            return 0;
+        }
+        int[] scores = scoreBuffers[ply];
+        scoreMoves(state, moves, scores, count, tableMove, ply);
+
+        int originalAlpha = alpha;
+        int best = -INFINITY;
+        int bestMove = moves[0];
+        for (int i = 0; i < count; i++) {
+            selectMove(moves, scores, i, count);
+            state.makeMove(moves[i]);
+            evaluator.moveMade(state);
+            int score = -negamax(state, depth - 1, -beta, -alpha, ply + 1);
+            state.undoMove();
+            evaluator.moveUndone(state);
+            if (stopped) {
+                return 0;
+            }
+            if (score > best) {
+                best = score;
+                bestMove = moves[i];
+                if (score > alpha) {
+                    alpha = score;
+                    if (alpha >= beta) {
+                        cutoffs++;
+                        if (i == 0) {
+                            firstMoveCutoffs++;
+                        }
+                        rewardQuietMove(state, moves[i], depth, ply);
+                        break;
+                    }
+                }
+            }
+        }
+
+        int bound = best >= beta ? TranspositionTable.LOWER
+            : best > originalAlpha ? TranspositionTable.EXACT : TranspositionTable.UPPER;
+        table.store(hash, bestMove, TranspositionTable.toStored(best, ply), depth, bound);
+        return best;
+    }
+
+    /**
+     * Método que dá a cada movimento a nota usada na ordenação, da maior para a menor: movimento da tabela de
+     * transposição, vitória imediata, captura, assassinos e, para os demais, o valor da tabela de histórico
+     */
+    private void scoreMoves(GameState state, int[] moves, int[] scores, int count, int tableMove, int ply) {
+        int side = state.getSideToMove();
+        int enemy = state.getPieces(1 - side);
+        int enemyMaster = state.getMaster(1 - side);
+        int master = state.getMaster(side);
+        int temple = GameState.targetTemple(side);
+        int[] killer = killers[ply];
+        for (int i = 0; i < count; i++) {
+            int move = moves[i];
+            int to = GameState.moveTo(move);
+            int from = GameState.moveFrom(move);
+            if (move == tableMove) {
+                scores[i] = TABLE_MOVE_SCORE;
+            } else if (to == enemyMaster || (from == master && to == temple)) {
+                scores[i] = WINNING_SCORE;
+            } else if ((enemy & (1 << to)) != 0) {
+                // entre as capturas, arriscar um aprendiz antes do mestre
+                scores[i] = CAPTURE_SCORE + (from == master ? 0 : 1);
+            } else if (move == killer[0]) {
+                scores[i] = KILLER_SCORE + 1;
+            } else if (move == killer[1]) {
+                scores[i] = KILLER_SCORE;
+            } else {
+                scores[i] = history[state.moveCardId(move)][to];
+            }
+        }
+    }
+
+    /**
+     * Método que traz para a posição index o movimento de maior nota entre os que ainda não foram buscados.
+     * Escolher um por vez evita ordenar a lista toda quando o primeiro movimento já causa o corte
+     */
+    private static void selectMove(int[] moves, int[] scores, int index, int count) {
+        int best = index;
+        for (int i = index + 1; i < count; i++) {
+            if (scores[i] > scores[best]) {
+                best = i;
+            }
+        }
+        if (best != index) {
+            int move = moves[index];
+            moves[index] = moves[best];
+            moves[best] = move;
+            int score = scores[index];
+            scores[index] = scores[best];
+            scores[best] = score;
+        }
+    }
+
+    /**
+     * Método que guarda um movimento sem captura que causou corte como assassino da profundidade e soma
+     * depth * depth ao histórico da sua carta e destino
+     */
+    private void rewardQuietMove(GameState state, int move, int depth, int ply) {
+        int to = GameState.moveTo(move);
+        if ((state.getPieces(1 - state.getSideToMove()) & (1 << to)) != 0) {
+            return;
+        }
+        int[] killer = killers[ply];
+        if (killer[0] != move) {
+            killer[1] = killer[0];
+            killer[0] = move;
+        }
+        int[] row = history[state.moveCardId(move)];
+        row[to] += depth * depth;
+        if (row[to] >= HISTORY_LIMIT) {
+            for (int[] other : history) {
+                for (int square = 0; square < 25; square++) {
+                    other[square] >>= 1;
+                }
+            }
+        }
+    }
+
+    private static void moveToFront(int[] moves, int count, int move) {
+        for (int i = 0; i < count; i++) {
+            if (moves[i] == move) {
+                System.arraycopy(moves, 0, moves, 1, i);
+                moves[0] = move;
+                return;
+            }
+        }
+    }
+
+    private static long deadline(long start, long millis) {
+        return millis >= Long.MAX_VALUE / 1_000_000 ? Long.MAX_VALUE : start + millis * 1_000_000;
+    }
+}
@@ -0,0 +1,120 @@
+import java.io.IOException;
+import java.nio.file.Paths;
+
+/**
+ * Classe que descreve uma configuração do motor (pesos da avaliação, limite de busca e tamanho da tabela),
+ * usada para comparar versões do motor entre si. Pode ser escrita em texto como
+ * "name=base,depth=4" ou "name=novo,movetime=50,weights=pesos.txt,hash=8".
+ */
+public class EngineConfig {
+
+    private final String name;
+    private final Evaluator evaluator;
+    private final NeuralNetwork network;
+    private final int depth;
+    private final long moveMillis;
+    private final int hashMegabytes;
+
+    /**
+     * Construtor que define todas as opções
+     * @param name Nome da configuração
+     * @param evaluator A avaliação usada
+     * @param depth Profundidade fixa por movimento, ou 0 para limitar por tempo
+     * @param moveMillis Tempo por movimento em milissegundos, usado quando depth é 0
+     * @param hashMegabytes Tamanho da tabela de transposição
+     */
+    public EngineConfig(String name, Evaluator evaluator, int depth, long moveMillis, int hashMegabytes) {
+        this(name, evaluator, null, depth, moveMillis, hashMegabytes);
+    }
+
+    /**
+     * Construtor que define todas as opções, inclusive uma rede neural que substitui a avaliação manual
+     * @param name Nome da configuração
+     * @param evaluator A avaliação manual, usada quando network é null
+     * @param network A rede neural usada na avaliação, ou null
+     * @param depth Profundidade fixa por movimento, ou 0 para limitar por tempo
+     * @param moveMillis Tempo por movimento em milissegundos, usado quando depth é 0
+     * @param hashMegabytes Tamanho da tabela de transposição
+     */
+    public EngineConfig(String name, Evaluator evaluator, NeuralNetwork network, int depth, long moveMillis,
+            int hashMegabytes) {
+        if (depth <= 0 && moveMillis <= 0) {
+            throw new IllegalArgumentException("A configuração " + name + " precisa de depth ou movetime");
+        }
+        this.name = name;
+        this.evaluator = evaluator;
+        this.network = network;
+        this.depth = depth;
+        this.moveMillis = moveMillis;
+        this.hashMegabytes = hashMegabytes;
+    }
+
+    /**
+     * Método que lê uma configuração escrita como pares chave=valor separados por vírgula.
+     * Chaves aceitas: name, depth, movetime, weights, nn (arquivo de NeuralNetwork) e hash
+     * @param spec O texto da configuração
+     * @return A configuração
+     * @exception IOException Caso o arquivo de pesos não possa ser lido
+     * @exception IllegalArgumentException Caso haja uma chave desconhecida
+     */
+    public static EngineConfig parse(String spec) throws IOException {
+        String name = spec;
+        Evaluator evaluator = new Evaluator();
+        NeuralNetwork network = null;
+        int depth = 0;
+        long moveMillis = 0;
+        int hash = 4;
+        for (String option : spec.split(",")) {
+            String[] pair = option.split("=", 2);
+            if (pair.length != 2) {
+                throw new IllegalArgumentException("Opção inválida: " + option);
+            }
+            String value = pair[1].trim();
+            switch (pair[0].trim()) {
+                case "name": name = value; break;
+                case "depth": depth = Integer.parseInt(value); break;
+                case "movetime": moveMillis = Long.parseLong(value); break;
+                case "weights": evaluator = Evaluator.load(Paths.get(value)); break;
+                case "nn": network = NeuralNetwork.load(Paths.get(value)); break;
+                case "hash": hash = Integer.parseInt(value); break;
+                default: throw new IllegalArgumentException("Opção desconhecida: " + pair[0]);
+            }
+        }
+        return new EngineConfig(name, evaluator, network, depth, moveMillis, hash);
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public Evaluator getEvaluator() {
+        return evaluator;
+    }
+
+    /**
+     * Método que cria um motor com esta configuração. Cada thread deve usar o seu próprio motor
+     * @return Um novo motor
+     */
+    public Engine createEngine() {
+        PositionEvaluator evaluation = network != null ? network.createEvaluator() : new Evaluator(evaluator.getWeights());
+        return new Engine(evaluation, new TimeManager(), new TranspositionTable(hashMegabytes));
+    }
+
+    /**
+     * Método que busca o melhor movimento com o limite desta configuração
+     * @param engine Um motor criado por createEngine
+     * @param state A posição
+     * @return O resultado da busca
+     */
+    public SearchResult search(Engine engine, GameState state) {
+        if (depth > 0) {
+            return engine.search(state, depth);
+        }
+        return engine.search(state, Engine.MAX_PLY - 1, moveMillis, moveMillis);
+    }
+
+    @Override
+    public String toString() {
+        return name;
+    }
+}
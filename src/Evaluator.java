@@ -0,0 +1,180 @@
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Properties;
+
+/**
+ * Classe que avalia uma posição com uma soma ponderada de termos simples.
+ * Cada termo é calculado como (valor do vermelho - valor do azul), então a avaliação é linear nos pesos,
+ * o que permite ajustá-los com Tuner.
+ * <p>
+ * Cada instância guarda os vetores usados no cálculo dos termos, então avaliar não cria objetos, mas
+ * uma instância não deve ser usada por mais de uma thread ao mesmo tempo.
+ */
+public class Evaluator implements PositionEvaluator {
+
+    /**
+     * Nomes dos termos da avaliação, na mesma ordem dos pesos
+     */
+    public static final String[] TERMS = {
+        "pawn", "master_distance", "mobility", "center", "master_threat", "advance", "tempo"
+    };
+
+    public static final int PAWN = 0;
+    public static final int MASTER_DISTANCE = 1;
+    public static final int MOBILITY = 2;
+    public static final int CENTER = 3;
+    public static final int MASTER_THREAT = 4;
+    public static final int ADVANCE = 5;
+    public static final int TEMPO = 6;
+
+    private static final double[] DEFAULT_WEIGHTS = {100, 12, 4, 6, 25, 3, 10};
+
+    private static final int CENTER_MASK = 0b01110_01110_01110_00000;
+
+    private final double[] weights;
+    private final double[] featureBuffer = new double[TERMS.length];
+    private final int[] moveBuffer = new int[GameState.MAX_MOVES];
+
+    /**
+     * Construtor que usa os pesos padrão, ajustados à mão
+     */
+    public Evaluator() {
+        this(DEFAULT_WEIGHTS);
+    }
+
+    /**
+     * Construtor que define os pesos de cada termo
+     * @param weights Um peso para cada termo de TERMS
+     */
+    public Evaluator(double[] weights) {
+        if (weights.length != TERMS.length) {
+            throw new IllegalArgumentException("São necessários " + TERMS.length + " pesos");
+        }
+        this.weights = weights.clone();
+    }
+
+    /**
+     * Método que carrega os pesos de um arquivo no formato "nome = valor", como o gerado por save.
+     * Termos ausentes no arquivo ficam com o peso padrão
+     * @param path O arquivo de pesos
+     * @return Um avaliador com os pesos lidos
+     * @exception IOException Caso o arquivo não possa ser lido
+     */
+    public static Evaluator load(Path path) throws IOException {
+        Properties properties = new Properties();
+        try (Reader reader = Files.newBufferedReader(path)) {
+            properties.load(reader);
+        }
+        double[] weights = DEFAULT_WEIGHTS.clone();
+        for (int i = 0; i < TERMS.length; i++) {
+            String value = properties.getProperty(TERMS[i]);
+            if (value != null) {
+                weights[i] = Double.parseDouble(value.trim());
+            }
+        }
+        return new Evaluator(weights);
+    }
+
+    /**
+     * Método que grava os pesos em um arquivo que pode ser lido por load
+     * @param path O arquivo de destino
+     * @exception IOException Caso o arquivo não possa ser escrito
+     */
+    public void save(Path path) throws IOException {
+        try (BufferedWriter writer = Files.newBufferedWriter(path)) {
+            writer.write("# Pesos da avaliação");
+            writer.newLine();
+            for (int i = 0; i < TERMS.length; i++) {
+                writer.write(TERMS[i] + " = " + weights[i]);
+                writer.newLine();
+            }
+        }
+    }
+
+    /**
+     * Método que devolve uma cópia dos pesos
+     * @return Os pesos, na ordem de TERMS
+     */
+    public double[] getWeights() {
+        return weights.clone();
+    }
+
+    @Override
+    public int evaluate(GameState state) {
+        double[] features = featureBuffer;
+        features(state, features, moveBuffer);
+        double score = 0;
+        for (int i = 0; i < weights.length; i++) {
+            score += weights[i] * features[i];
+        }
+        int result = (int) Math.round(score);
+        return state.getSideToMove() == GameState.RED ? result : -result;
+    }
+
+    /**
+     * Método que calcula os termos da avaliação do ponto de vista do vermelho
+     * @param state A posição
+     * @param out Vetor com TERMS.length posições que recebe os termos
+     */
+    public static void features(GameState state, double[] out) {
+        features(state, out, new int[GameState.MAX_MOVES]);
+    }
+
+    /**
+     * Método que calcula os termos da avaliação do ponto de vista do vermelho sem criar objetos
+     * @param state A posição
+     * @param out Vetor com TERMS.length posições que recebe os termos
+     * @param moves Vetor com GameState.MAX_MOVES posições usado para gerar os movimentos
+     */
+    public static void features(GameState state, double[] out, int[] moves) {
+        int red = state.getPieces(GameState.RED);
+        int blue = state.getPieces(GameState.BLUE);
+        int redMaster = state.getMaster(GameState.RED);
+        int blueMaster = state.getMaster(GameState.BLUE);
+        int redPawns = redMaster < 0 ? red : red & ~(1 << redMaster);
+        int bluePawns = blueMaster < 0 ? blue : blue & ~(1 << blueMaster);
+
+        out[PAWN] = Integer.bitCount(redPawns) - Integer.bitCount(bluePawns);
+        out[MASTER_DISTANCE] = templeDistance(blueMaster, GameState.BLUE) - templeDistance(redMaster, GameState.RED);
+        out[CENTER] = Integer.bitCount(red & CENTER_MASK) - Integer.bitCount(blue & CENTER_MASK);
+
+        int advance = 0;
+        for (int rest = redPawns; rest != 0; rest &= rest - 1) {
+            advance += 4 - Integer.numberOfTrailingZeros(rest) / 5;
+        }
+        for (int rest = bluePawns; rest != 0; rest &= rest - 1) {
+            advance -= Integer.numberOfTrailingZeros(rest) / 5;
+        }
+        out[ADVANCE] = advance;
+
+        int redCount = state.generateMoves(GameState.RED, moves);
+        int redThreats = countHits(moves, redCount, blueMaster);
+        int blueCount = state.generateMoves(GameState.BLUE, moves);
+        int blueThreats = countHits(moves, blueCount, redMaster);
+        out[MOBILITY] = redCount - blueCount;
+        out[MASTER_THREAT] = redThreats - blueThreats;
+
+        out[TEMPO] = state.getSideToMove() == GameState.RED ? 1 : -1;
+    }
+
+    private static int templeDistance(int master, int color) {
+        if (master < 0) {
+            return 8;
+        }
+        int temple = GameState.targetTemple(color);
+        return Math.abs(master / 5 - temple / 5) + Math.abs(master % 5 - temple % 5);
+    }
+
+    private static int countHits(int[] moves, int count, int square) {
+        int hits = 0;
+        for (int i = 0; i < count; i++) {
+            if (GameState.moveTo(moves[i]) == square) {
+                hits++;
+            }
+        }
+        return hits;
+    }
+}
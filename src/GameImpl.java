@@ -1,7 +1,14 @@
 
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.Arrays;
 import java.util.InputMismatchException;
 import java.util.Scanner;
+import java.util.concurrent.locks.StampedLock;
 
 import enums.Color;
 import exceptions.IllegalMovementException;
@@ -9,14 +16,46 @@ import exceptions.IncorrectTurnOrderException;
 import exceptions.InvalidCardException;
 import exceptions.InvalidPieceException;
 
+/**
+ * Implementação das regras do jogo. Pode ser jogada no console, pelos construtores públicos, ou por chamadas
+ * a makeMove, numa partida criada por host, por exemplo num servidor.
+ * <p>
+ * A partida pode ser lida e jogada por várias threads ao mesmo tempo. Um movimento (validação, aplicação,
+ * troca de cartas e de turno) é feito de uma vez sob a trava de escrita de um StampedLock; as leituras
+ * (getPiece, getTableCard, checkVictory, snapshot) são otimistas e só esperam pela trava quando um movimento
+ * acontece no meio delas, então nunca atrasam os movimentos.
+ * <p>
+ * Uma partida parada pode hibernar: o tabuleiro e o histórico de posições são trocados por alguns longs
+ * (ou por um arquivo) e pelas suas peças, e a partida é reconstruída sozinha no próximo acesso, com as mesmas
+ * peças de antes, então quem chama não percebe a diferença. Uma partida que não será mais usada pode ser
+ * descartada com discard, o que é definitivo.
+ */
 public class GameImpl implements Game {
 
-    private Spot[][] board;
+    private volatile Spot[][] board;
     private Player bluePlayer;
     private Player redPlayer;
     private Player currentPlayer;
     private Card tableCard;
     private Card[] deck;
+    private Clock clock;
+    private MoveHistory history;
+    private int moveLimit;
+    private boolean over;
+    private Color winner;
+    private final StampedLock lock = new StampedLock();
+
+    private int packedBoard;
+    private Piece[] packedPieces;
+    private long[] packedHistory;
+    private Path spillFile;
+    private volatile boolean discarded;
+    private volatile long lastActive = System.nanoTime();
+
+    /**
+     * Número de vezes que a mesma posição precisa aparecer para a partida terminar empatada
+     */
+    public static final int REPETITION_LIMIT = 3;
     
     public GameImpl(){
         deck = Card.createCards();
@@ -59,6 +98,58 @@ public class GameImpl implements Game {
         playGame();
     }
 
+    public GameImpl(String nameRedPlayer, String nameBluePlayer, Clock clock){
+        this(nameRedPlayer, nameBluePlayer, clock, 0);
+    }
+
+    /**
+     * Construtor de uma partida com relógio e limite de movimentos
+     * @param nameRedPlayer Nome do jogador vermelho
+     * @param nameBluePlayer Nome do jogador azul
+     * @param clock O relógio da partida, ou null para jogar sem tempo
+     * @param moveLimit Número de movimentos após o qual a partida termina empatada, ou 0 para não limitar
+     */
+    public GameImpl(String nameRedPlayer, String nameBluePlayer, Clock clock, int moveLimit){
+        deck = Card.createCards();
+        tableCard = deck[0];
+        Color startingColor = tableCard.getColor();
+        Card [] redPlayerCards = {deck[1], deck[2]};
+        Card [] bluePlayerCards = {deck[3], deck[4]};
+        this.redPlayer = new Player(nameRedPlayer, Color.RED, redPlayerCards);
+        this.bluePlayer = new Player(nameBluePlayer, Color.BLUE, bluePlayerCards);
+        currentPlayer = (startingColor == Color.RED) ? redPlayer : bluePlayer;
+        this.clock = clock;
+        this.moveLimit = moveLimit;
+        initializeBoard();
+        playGame();
+    }
+
+    private GameImpl(String nameRedPlayer, String nameBluePlayer, Card [] deck, int moveLimit){
+        this.deck = Arrays.copyOf(deck, 5);
+        tableCard = this.deck[0];
+        Color startingColor = tableCard.getColor();
+        Card [] redPlayerCards = {this.deck[1], this.deck[2]};
+        Card [] bluePlayerCards = {this.deck[3], this.deck[4]};
+        this.redPlayer = new Player(nameRedPlayer, Color.RED, redPlayerCards);
+        this.bluePlayer = new Player(nameBluePlayer, Color.BLUE, bluePlayerCards);
+        currentPlayer = (startingColor == Color.RED) ? redPlayer : bluePlayer;
+        this.moveLimit = moveLimit;
+        initializeBoard();
+        startHistory();
+    }
+
+    /**
+     * Método que cria uma partida sem o laço interativo do console, jogada apenas por chamadas a makeMove
+     * @param nameRedPlayer Nome do jogador vermelho
+     * @param nameBluePlayer Nome do jogador azul
+     * @param deck As 5 cartas na ordem de GameState(Card[]): mesa, vermelho, vermelho, azul, azul; ou null para sortear
+     * @param moveLimit Número de movimentos após o qual a partida termina empatada, ou 0 para não limitar
+     * @return A partida, pronta para o primeiro movimento
+     */
+    public static GameImpl host(String nameRedPlayer, String nameBluePlayer, Card [] deck, int moveLimit){
+        return new GameImpl(nameRedPlayer, nameBluePlayer, deck != null ? deck : Card.createCards(), moveLimit);
+    }
+
     /**
      * Método que devolve a cor da posição do tabuleiro. Se possui uma cor, significa que é um templo. Caso contrário, é um espaço normal
      * @param position Posição do tabuleiro
@@ -66,7 +157,7 @@ public class GameImpl implements Game {
      */
     @Override
     public Color getSpotColor(Position position){
-        return board[position.getRow()][position.getCol()].getColor();
+        return awakeBoard()[position.getRow()][position.getCol()].getColor();
     }
 
     /**
@@ -76,7 +167,18 @@ public class GameImpl implements Game {
      */
     @Override
     public Piece getPiece(Position position){
-        return board[position.getRow()][position.getCol()].getPiece();
+        long stamp = lock.tryOptimisticRead();
+        Spot spot = awakeBoard()[position.getRow()][position.getCol()];
+        Piece piece = spot.getPiece();
+        if (!lock.validate(stamp)){
+            stamp = readLockAwake();
+            try {
+                piece = board[position.getRow()][position.getCol()].getPiece();
+            } finally {
+                lock.unlockRead(stamp);
+            }
+        }
+        return piece;
     }
 
     /**
@@ -85,7 +187,100 @@ public class GameImpl implements Game {
      */
     @Override
     public Card getTableCard(){
-        return tableCard;
+        long stamp = lock.tryOptimisticRead();
+        Card card = tableCard;
+        if (!lock.validate(stamp)){
+            stamp = lock.readLock();
+            try {
+                card = tableCard;
+            } finally {
+                lock.unlockRead(stamp);
+            }
+        }
+        return card;
+    }
+
+    /**
+     * Método que devolve uma cópia das cartas de um jogador, lidas de forma consistente mesmo durante um movimento.
+     * Prefira este método a getRedPlayer().getCards() quando outras threads podem estar jogando
+     * @param color Cor das peças do jogador
+     * @return Um vetor novo com as cartas da mão do jogador
+     */
+    public Card[] getCards(Color color){
+        Player player = (color == Color.RED) ? redPlayer : bluePlayer;
+        long stamp = lock.tryOptimisticRead();
+        Card[] cards = player.getCards();
+        if (!lock.validate(stamp)){
+            stamp = lock.readLock();
+            try {
+                cards = player.getCards();
+            } finally {
+                lock.unlockRead(stamp);
+            }
+        }
+        return cards;
+    }
+
+    /**
+     * Método que devolve a cor do jogador da vez
+     * @return Enum Color com a cor de quem joga
+     */
+    public Color getCurrentColor(){
+        long stamp = lock.tryOptimisticRead();
+        Player player = currentPlayer;
+        if (!lock.validate(stamp)){
+            stamp = lock.readLock();
+            try {
+                player = currentPlayer;
+            } finally {
+                lock.unlockRead(stamp);
+            }
+        }
+        return player.getPieceColor();
+    }
+
+    /**
+     * Método que confere se a partida terminou, por vitória ou empate. Não considera o relógio
+     * @return Um booleano true caso a partida tenha terminado e false caso contrário
+     */
+    public boolean isOver(){
+        long stamp = lock.readLock();
+        try {
+            return over;
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    /**
+     * Método que devolve o vencedor da partida
+     * @return A cor do vencedor, Color.NONE em caso de empate ou null se a partida não terminou
+     */
+    public Color getWinner(){
+        long stamp = lock.readLock();
+        try {
+            return winner;
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    /**
+     * Método que devolve o estado da partida para o motor, lido de forma consistente mesmo durante um movimento
+     * @return O estado atual, com o histórico de posições da partida
+     */
+    public GameState snapshot(){
+        long stamp = lock.tryOptimisticRead();
+        GameState state = buildState(awakeBoard());
+        if (!lock.validate(stamp)){
+            stamp = readLockAwake();
+            try {
+                state = buildState(board);
+            } finally {
+                lock.unlockRead(stamp);
+            }
+        }
+        return state;
     }
 
     /**
@@ -118,6 +313,51 @@ public class GameImpl implements Game {
      */
     @Override
     public void makeMove(Card card, Position cardMove, Position currentPos) throws IncorrectTurnOrderException, IllegalMovementException, InvalidCardException, InvalidPieceException {
+        long stamp = lock.writeLock();
+        try {
+            wake();
+            lastActive = System.nanoTime();
+            if (over){
+                throw new IllegalMovementException("A partida já terminou");
+            }
+            applyMove(card, cardMove, currentPos);
+            finishTurn();
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * Método que move uma peça em nome de um jogador, conferindo a vez e aplicando o movimento de uma só vez,
+     * sem que outra thread jogue no meio
+     * @param color Cor do jogador que faz o movimento
+     * @param card A carta de movimento que será usada
+     * @param cardMove O deslocamento da carta
+     * @param currentPos A posição da peça
+     * @exception IncorrectTurnOrderException Caso não seja a vez do jogador
+     * @exception IllegalMovementException Caso o movimento seja inválido ou a partida já tenha terminado
+     * @exception InvalidCardException Caso uma carta que não está na mão do jogador seja usada
+     * @exception InvalidPieceException Caso uma peça que não está no tabuleiro seja usada
+     */
+    public void makeMove(Color color, Card card, Position cardMove, Position currentPos) throws IncorrectTurnOrderException, IllegalMovementException, InvalidCardException, InvalidPieceException {
+        long stamp = lock.writeLock();
+        try {
+            wake();
+            lastActive = System.nanoTime();
+            if (over){
+                throw new IllegalMovementException("A partida já terminou");
+            }
+            if (currentPlayer.getPieceColor() != color){
+                throw new IncorrectTurnOrderException("Não é a vez do jogador fazer um movimento.");
+            }
+            applyMove(card, cardMove, currentPos);
+            finishTurn();
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    private void applyMove(Card card, Position cardMove, Position currentPos) {
 
         if (!board[currentPos.getRow()][currentPos.getCol()].isOccupied()){
             throw new InvalidPieceException("Não há nenhuma peça na posição");
@@ -170,11 +410,25 @@ public class GameImpl implements Game {
      */
     @Override
     public boolean checkVictory(Color color){
+        long stamp = lock.tryOptimisticRead();
+        boolean victory = victory(awakeBoard(), color);
+        if (!lock.validate(stamp)){
+            stamp = readLockAwake();
+            try {
+                victory = victory(board, color);
+            } finally {
+                lock.unlockRead(stamp);
+            }
+        }
+        return victory;
+    }
+
+    private boolean victory(Spot[][] board, Color color){
         Player player = (color == color.RED) ? redPlayer : bluePlayer;
         Player opponent = (player.getPieceColor() == color.RED) ? bluePlayer: redPlayer;
         
 
-        Spot opponentTemple = getTempleSpot(opponent.getPieceColor());
+        Spot opponentTemple = getTempleSpot(board, opponent.getPieceColor());
 
         Piece piece = opponentTemple.getPiece();
 
@@ -198,12 +452,53 @@ public class GameImpl implements Game {
     }
 
 
+    /**
+     * Método que confere se o tempo de um jogador acabou. Assim como checkVictory, encerra a partida:
+     * quem fica sem tempo perde. Partidas sem relógio nunca terminam por tempo
+     * @param color Cor das peças do jogador
+     * @return Um booleano true caso o tempo do jogador tenha acabado e false caso contrário
+     */
+    public boolean hasFlagged(Color color){
+        return clock != null && clock.hasFlagged(color);
+    }
+
+    /**
+     * Método que confere se a partida terminou empatada: a posição atual apareceu REPETITION_LIMIT vezes
+     * (mesmas peças, mesmas cartas com cada jogador e mesmo jogador da vez) ou o limite de movimentos foi atingido
+     * @return Um booleano true caso a partida esteja empatada e false caso contrário
+     */
+    public boolean checkDraw(){
+        long stamp = readLockAwake();
+        try {
+            return draw();
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    private boolean draw(){
+        if (history == null || history.size() == 0){
+            return false;
+        }
+        long current = history.get(history.size() - 1);
+        return history.count(current) >= REPETITION_LIMIT || (moveLimit > 0 && history.size() - 1 >= moveLimit);
+    }
+
     /**
      * Método que imprime o tabuleiro no seu estado atual
      * OBS: Esse método é opcional não será utilizado na correção, mas serve para acompanhar os resultados parciais do jogo
      */
     @Override
     public void printBoard(){
+        long stamp = readLockAwake();
+        try {
+            print();
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    private void print(){
 
       System.out.println("Tabuleiro:");
 
@@ -233,25 +528,44 @@ public class GameImpl implements Game {
         System.out.println("    0   1  2  3  4");
     }
 
+    /**
+     * Método que coloca as peças nas casas iniciais. O tabuleiro novo é montado antes e trocado de uma vez,
+     * com a trava de escrita, então as outras threads nunca veem um tabuleiro pela metade
+     * @exception IllegalStateException Caso a partida tenha sido descartada com discard
+     */
     public void initializeBoard(){
-        board = new Spot[5][5];
+        Spot[][] spots = new Spot[5][5];
 
         for (int row = 0; row < 5; row++) {
             for (int col = 0; col < 5; col++) {
                 if (row == 0) {
-                    board[row][col] = new Spot(new Piece(Color.BLUE, false), new Position(row, col));
+                    spots[row][col] = new Spot(new Piece(Color.BLUE, false), new Position(row, col));
                 } else if (row == 4) {
-                    board[row][col] = new Spot(new Piece(Color.RED, false), new Position(row, col));
+                    spots[row][col] = new Spot(new Piece(Color.RED, false), new Position(row, col));
                 }else{
-                    board[row][col] = new Spot(new Position(row, col));
+                    spots[row][col] = new Spot(new Position(row, col));
 
                 }
 
             }
         }
 
-        board[0][2] = new Spot(new Piece(Color.BLUE, true), new Position(0, 2));
-        board[4][2] = new Spot(new Piece(Color.RED, true), new Position(4, 2));
+        spots[0][2] = new Spot(new Piece(Color.BLUE, true), new Position(0, 2));
+        spots[4][2] = new Spot(new Piece(Color.RED, true), new Position(4, 2));
+
+        long stamp = lock.writeLock();
+        try {
+            if (discarded){
+                throw new IllegalStateException("A partida foi descartada");
+            }
+            if (board == null && (packedHistory != null || spillFile != null)){
+                // acorda antes, para que o histórico volte junto com o tabuleiro
+                wake();
+            }
+            board = spots;
+        } finally {
+            lock.unlockWrite(stamp);
+        }
     }
 
 
@@ -287,7 +601,7 @@ public class GameImpl implements Game {
 
 }
 
-    private Spot getTempleSpot(Color color) {
+    private static Spot getTempleSpot(Spot[][] board, Color color) {
         if (color == Color.BLUE) {
             return board[0][2]; // Exemplo de posição do templo azul
         } else if (color == Color.RED) {
@@ -299,12 +613,19 @@ public class GameImpl implements Game {
     private void playGame(){
 
         boolean gameOver = false;
+        boolean draw = false;
+        startHistory();
 
         while(!gameOver){
             System.out.println();
             System.out.println("Carta da mesa: " + tableCard.getName());
             System.out.println();
             System.out.println("Jogador atual: " + currentPlayer.getName() + "(" + currentPlayer.getPieceColor() + ")");
+            if (clock != null){
+                System.out.println("Tempo: " + redPlayer.getName() + " " + Clock.format(clock.getRemaining(Color.RED))
+                    + " | " + bluePlayer.getName() + " " + Clock.format(clock.getRemaining(Color.BLUE)));
+                clock.start(currentPlayer.getPieceColor());
+            }
             System.out.println();
             printBoard();
 
@@ -314,11 +635,18 @@ public class GameImpl implements Game {
 
             Position moveCard = selectMovePosition(selectedCard);  
 
+            if (hasFlagged(currentPlayer.getPieceColor())){
+                System.out.println("Tempo esgotado para " + currentPlayer.getName() + "!");
+                break;
+            }
 
         try {
             makeMove(selectedCard, moveCard, currPosition);
-            gameOver = checkVictory(currentPlayer.getPieceColor()) ? true : false;
-            switchTurn();
+            if (clock != null){
+                clock.stop();
+            }
+            gameOver = isOver();
+            draw = gameOver && getWinner() == Color.NONE;
         }
 
         catch(Exception e){
@@ -326,8 +654,17 @@ public class GameImpl implements Game {
         }
     }
 
+        if (clock != null){
+            clock.pause();
+        }
+
         printBoard();
 
+        if (draw){
+            System.out.println("A partida terminou empatada.");
+            return;
+        }
+
         Player winner = (currentPlayer == redPlayer) ? bluePlayer : redPlayer;
         System.out.println("Parabéns, " + winner.getName() + "! Você venceu o jogo!");
 
@@ -421,6 +758,264 @@ public class GameImpl implements Game {
         
     }
 
+    /**
+     * Método que faz a partida hibernar: o tabuleiro e o histórico de posições são trocados por uma versão
+     * compacta, de um long por posição já jogada. A partida acorda sozinha no próximo acesso. Não faz nada
+     * numa partida descartada
+     */
+    public void hibernate(){
+        long stamp = lock.writeLock();
+        try {
+            if (!discarded){
+                pack();
+            }
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * Método que faz a partida hibernar em disco: além do tabuleiro, o histórico de posições vai para um arquivo,
+     * apagado quando a partida acordar. Na memória fica só a partida sem as peças. Não faz nada numa partida descartada
+     * @param directory A pasta onde o arquivo será criado
+     * @exception IOException Caso o arquivo não possa ser gravado; a partida continua hibernando na memória
+     */
+    public void hibernate(Path directory) throws IOException {
+        long[] hashes;
+        long stamp = lock.writeLock();
+        try {
+            if (discarded){
+                return;
+            }
+            pack();
+            if (spillFile != null){
+                return;
+            }
+            hashes = packedHistory;
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+
+        // o arquivo é gravado fora da trava, para que as leituras não esperem pelo disco
+        Path file = Files.createTempFile(directory, "onitama-", ".game");
+        try (DataOutputStream out = new DataOutputStream(Files.newOutputStream(file))) {
+            out.writeInt(hashes.length);
+            for (long hash : hashes){
+                out.writeLong(hash);
+            }
+        } catch (IOException e) {
+            Files.deleteIfExists(file);
+            throw e;
+        }
+
+        boolean published = false;
+        stamp = lock.writeLock();
+        try {
+            // se a partida acordou ou foi descartada enquanto o arquivo era gravado, ele não serve mais
+            if (!discarded && spillFile == null && packedHistory == hashes){
+                spillFile = file;
+                packedHistory = null;
+                published = true;
+            }
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+        if (!published){
+            Files.deleteIfExists(file);
+        }
+    }
+
+    /**
+     * Método que faz a partida hibernar se ninguém jogou nem a acordou por um certo tempo
+     * @param idleMillis O tempo sem uso, em milissegundos
+     * @param directory A pasta onde a partida será gravada, ou null para hibernar na memória
+     * @return true caso a partida esteja hibernando ao final; false também para uma partida descartada
+     * @exception IOException Caso o arquivo não possa ser gravado
+     */
+    public boolean hibernateIfIdle(long idleMillis, Path directory) throws IOException {
+        if (System.nanoTime() - lastActive < idleMillis * 1_000_000){
+            return isHibernated();
+        }
+        if (directory != null){
+            hibernate(directory);
+        } else {
+            hibernate();
+        }
+        return isHibernated();
+    }
+
+    /**
+     * Método que encerra de vez uma partida que não será mais usada, como uma sessão encerrada: libera o
+     * tabuleiro e o histórico e apaga o arquivo, se a partida estiver hibernando em disco. Depois dele, todo
+     * método que consulta o tabuleiro ou joga lança IllegalStateException, e hibernate não faz nada
+     * @exception IOException Caso o arquivo não possa ser apagado; a partida fica descartada mesmo assim
+     */
+    public void discard() throws IOException {
+        long stamp = lock.writeLock();
+        try {
+            discarded = true;
+            board = null;
+            history = null;
+            packedHistory = null;
+            packedPieces = null;
+            if (spillFile != null){
+                Path file = spillFile;
+                spillFile = null;
+                Files.deleteIfExists(file);
+            }
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    public boolean isHibernated(){
+        return board == null && !discarded;
+    }
+
+    public boolean isDiscarded(){
+        return discarded;
+    }
+
+    /**
+     * Método que guarda o tabuleiro em packedBoard, a máscara das casas ocupadas, e packedPieces, as peças na
+     * ordem das casas, e o histórico em packedHistory. As peças são guardadas em vez de recriadas para que as
+     * devolvidas por getPiece continuem sendo as do tabuleiro depois de acordar. Chamado com a trava de escrita
+     */
+    private void pack(){
+        Spot[][] spots = board;
+        if (spots == null){
+            return;
+        }
+        Piece[] pieces = new Piece[10];
+        int occupied = 0;
+        int count = 0;
+        for (int square = 0; square < 25; square++){
+            Piece piece = spots[square / 5][square % 5].getPiece();
+            if (piece != null){
+                occupied |= 1 << square;
+                pieces[count++] = piece;
+            }
+        }
+        packedBoard = occupied;
+        packedPieces = Arrays.copyOf(pieces, count);
+        packedHistory = new long[history.size()];
+        for (int i = 0; i < packedHistory.length; i++){
+            packedHistory[i] = history.get(i);
+        }
+        history = null;
+        board = null;
+    }
+
+    /**
+     * Método que reconstrói o tabuleiro e o histórico de uma partida hibernando. Chamado com a trava de escrita
+     * @exception UncheckedIOException Caso a partida esteja em disco e o arquivo não possa ser lido
+     * @exception IllegalStateException Caso a partida tenha sido descartada com discard
+     */
+    private void wake(){
+        if (board != null){
+            return;
+        }
+        if (discarded){
+            throw new IllegalStateException("A partida foi descartada");
+        }
+        if (spillFile != null){
+            try (DataInputStream in = new DataInputStream(Files.newInputStream(spillFile))) {
+                packedHistory = new long[in.readInt()];
+                for (int i = 0; i < packedHistory.length; i++){
+                    packedHistory[i] = in.readLong();
+                }
+                Files.delete(spillFile);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Não foi possível ler a partida hibernando: " + spillFile, e);
+            }
+            spillFile = null;
+        }
+        Spot[][] spots = new Spot[5][5];
+        int next = 0;
+        for (int square = 0; square < 25; square++){
+            Position position = new Position(square / 5, square % 5);
+            if ((packedBoard & (1 << square)) != 0){
+                spots[square / 5][square % 5] = new Spot(packedPieces[next++], position);
+            } else {
+                spots[square / 5][square % 5] = new Spot(position);
+            }
+        }
+        history = new MoveHistory();
+        for (long hash : packedHistory){
+            history.push(hash);
+        }
+        packedHistory = null;
+        packedPieces = null;
+        lastActive = System.nanoTime();
+        board = spots;
+    }
+
+    /**
+     * Método que devolve o tabuleiro, acordando a partida se ela estiver hibernando
+     */
+    private Spot[][] awakeBoard(){
+        Spot[][] spots = board;
+        while (spots == null){
+            long stamp = lock.writeLock();
+            try {
+                wake();
+            } finally {
+                lock.unlockWrite(stamp);
+            }
+            spots = board;
+        }
+        return spots;
+    }
+
+    /**
+     * Método que obtém a trava de leitura com a partida acordada
+     */
+    private long readLockAwake(){
+        while (true){
+            long stamp = lock.readLock();
+            if (board != null){
+                return stamp;
+            }
+            lock.unlockRead(stamp);
+            awakeBoard();
+        }
+    }
+
+    private void startHistory(){
+        history = new MoveHistory();
+        recordPosition();
+    }
+
+    /**
+     * Método que encerra o turno depois de um movimento: confere a vitória de quem jogou, passa a vez,
+     * registra a posição e confere o empate. Chamado com a trava de escrita
+     */
+    private void finishTurn(){
+        Color mover = currentPlayer.getPieceColor();
+        boolean victory = victory(board, mover);
+        switchTurn();
+        recordPosition();
+        if (victory){
+            over = true;
+            winner = mover;
+        } else if (draw()){
+            over = true;
+            winner = Color.NONE;
+        }
+    }
+
+    private GameState buildState(Spot[][] board){
+        Piece[] pieces = new Piece[25];
+        for (int square = 0; square < 25; square++){
+            pieces[square] = board[square / 5][square % 5].getPiece();
+        }
+        return GameState.of(pieces, redPlayer.getCards(), bluePlayer.getCards(), tableCard, currentPlayer.getPieceColor());
+    }
+
+    private void recordPosition(){
+        history.push(buildState(board).getHash());
+    }
+
     private void switchTurn(){
         currentPlayer = (currentPlayer == bluePlayer) ? redPlayer : bluePlayer;
     }
@@ -0,0 +1,99 @@
+import exceptions.IllegalMovementException;
+
+import java.util.Arrays;
+
+/**
+ * Registro de uma partida: a posição inicial e os movimentos jogados a partir dela. Em texto, é uma linha com
+ * a posição na notação de GameState.parse, um ';' e os movimentos na notação de GameState.moveToNotation,
+ * separados por espaço, por exemplo:
+ * "bbBbb/-----/-----/-----/rrRrr Tiger,Dragon Frog,Rabbit Crab r;Tiger:c1-c3 Frog:a5-b4"
+ */
+public class GameRecord {
+
+    private final GameState start;
+    private final int[] moves;
+
+    /**
+     * Construtor que define a posição inicial e os movimentos, sem conferir se eles são legais
+     * @param start A posição inicial; é copiada
+     * @param moves Os movimentos codificados como em GameState
+     */
+    public GameRecord(GameState start, int[] moves) {
+        this.start = new GameState(start);
+        this.moves = Arrays.copyOf(moves, moves.length);
+    }
+
+    /**
+     * Método que lê uma partida em texto, conferindo cada movimento
+     * @param line A partida em texto
+     * @return O registro
+     * @exception IllegalArgumentException Caso a posição inicial não esteja na notação esperada
+     * @exception IllegalMovementException Caso algum movimento seja ilegal, com o número do lance na mensagem
+     */
+    public static GameRecord parse(String line) {
+        int separator = line.indexOf(';');
+        GameState state = GameState.parse(separator < 0 ? line : line.substring(0, separator));
+        GameState start = new GameState(state);
+        String text = separator < 0 ? "" : line.substring(separator + 1).trim();
+        String[] tokens = text.isEmpty() ? new String[0] : text.split("\\s+");
+        int[] moves = new int[tokens.length];
+        for (int i = 0; i < tokens.length; i++) {
+            if (state.winner() >= 0) {
+                throw new IllegalMovementException("Lance " + (i + 1) + " depois do fim da partida: " + tokens[i]);
+            }
+            try {
+                moves[i] = state.parseMove(tokens[i]);
+            } catch (IllegalMovementException e) {
+                throw new IllegalMovementException("Lance " + (i + 1) + ": " + e.getMessage());
+            }
+            state.makeMove(moves[i]);
+        }
+        return new GameRecord(start, moves);
+    }
+
+    /**
+     * Método que devolve a posição inicial
+     * @return Uma cópia da posição inicial
+     */
+    public GameState getStart() {
+        return new GameState(start);
+    }
+
+    /**
+     * Método que devolve a posição final, reproduzindo os movimentos a partir da posição inicial
+     * @return A posição depois do último movimento
+     */
+    public GameState getEnd() {
+        GameState state = new GameState(start);
+        for (int move : moves) {
+            state.makeMove(move);
+        }
+        return state;
+    }
+
+    /**
+     * Método que devolve os movimentos da partida
+     * @return Os movimentos, em ordem
+     */
+    public int[] getMoves() {
+        return Arrays.copyOf(moves, moves.length);
+    }
+
+    public int length() {
+        return moves.length;
+    }
+
+    @Override
+    public String toString() {
+        GameState state = new GameState(start);
+        StringBuilder text = new StringBuilder(start.toNotation()).append(';');
+        for (int i = 0; i < moves.length; i++) {
+            if (i > 0) {
+                text.append(' ');
+            }
+            text.append(state.moveToNotation(moves[i]));
+            state.makeMove(moves[i]);
+        }
+        return text.toString();
+    }
+}
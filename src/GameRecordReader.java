@@ -0,0 +1,155 @@
+import exceptions.IllegalMovementException;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+
+/**
+ * Classe que lê partidas gravadas por GameRecordWriter. A leitura é feita em duas etapas: readRaw separa os
+ * bytes de uma partida sem reproduzi-la, o que é barato, e decode reproduz a partida pelas regras, o que pode
+ * ser feito em outra thread.
+ */
+public class GameRecordReader implements AutoCloseable {
+
+    private final DataInputStream in;
+
+    /**
+     * Construtor que confere o cabeçalho do arquivo
+     * @param stream A entrada; é fechada junto com o leitor
+     * @exception IOException Caso a entrada não possa ser lida ou não seja um arquivo de partidas
+     */
+    public GameRecordReader(InputStream stream) throws IOException {
+        this.in = new DataInputStream(new BufferedInputStream(stream, 1 << 16));
+        if (in.readInt() != GameRecordWriter.MAGIC) {
+            in.close();
+            throw new IOException("Não é um arquivo de partidas");
+        }
+    }
+
+    /**
+     * Método que lê os bytes da próxima partida
+     * @return Os bytes da partida, ou null no fim do arquivo
+     * @exception IOException Caso a entrada não possa ser lida ou termine no meio de uma partida
+     */
+    public byte[] readRaw() throws IOException {
+        int flags = in.read();
+        if (flags < 0) {
+            return null;
+        }
+        try {
+            byte[] raw = new byte[64];
+            raw[0] = (byte) flags;
+            int length = 1;
+            int start = (flags & GameRecordWriter.START_PACKED) != 0 ? 12 : 5;
+            in.readFully(raw, length, start);
+            length += start;
+
+            int count = 0;
+            for (int shift = 0; ; shift += 7) {
+                int b = in.readUnsignedByte();
+                raw[length++] = (byte) b;
+                count |= (b & 0x7F) << shift;
+                if ((b & 0x80) == 0) {
+                    break;
+                }
+                if (shift >= 14) {
+                    throw new IOException("Número de movimentos inválido");
+                }
+            }
+            if (raw.length < length + count + 1) {
+                raw = Arrays.copyOf(raw, length + count + 1);
+            }
+            in.readFully(raw, length, count + 1);
+            length += count + 1;
+            return raw.length == length ? raw : Arrays.copyOf(raw, length);
+        } catch (EOFException e) {
+            throw new IOException("Partida incompleta no fim do arquivo", e);
+        }
+    }
+
+    /**
+     * Método que lê e confere a próxima partida
+     * @return A partida, ou null no fim do arquivo
+     * @exception IOException Caso a entrada não possa ser lida
+     * @exception IllegalMovementException Caso a partida não seja válida
+     */
+    public GameRecord read() throws IOException {
+        byte[] raw = readRaw();
+        return raw == null ? null : decode(raw);
+    }
+
+    /**
+     * Método que reproduz uma partida lida por readRaw, conferindo as cartas, cada movimento e o resultado
+     * declarado, que deve ser o vencedor da posição final ou empate numa partida sem vencedor
+     * @param raw Os bytes da partida
+     * @return A partida
+     * @exception IllegalMovementException Caso a partida não seja válida, com o número do lance na mensagem
+     */
+    public static GameRecord decode(byte[] raw) {
+        int index = 1;
+        GameState state;
+        try {
+            if ((raw[0] & GameRecordWriter.START_PACKED) != 0) {
+                long board = 0;
+                for (int i = 0; i < 8; i++) {
+                    board = (board << 8) | (raw[index++] & 0xFF);
+                }
+                long cards = 0;
+                for (int i = 0; i < 4; i++) {
+                    cards = (cards << 8) | (raw[index++] & 0xFF);
+                }
+                state = GameState.unpack(board, cards);
+                state.validate();
+            } else {
+                Card[] deck = new Card[5];
+                long used = 0;
+                for (int i = 0; i < 5; i++) {
+                    int card = raw[index++] & 0xFF;
+                    if ((used & (1L << card)) != 0) {
+                        throw new IllegalArgumentException("carta repetida");
+                    }
+                    used |= 1L << card;
+                    deck[i] = Card.byIndex(card);
+                }
+                state = new GameState(deck);
+            }
+        } catch (RuntimeException e) {
+            throw new IllegalMovementException("Posição inicial inválida: " + e.getMessage());
+        }
+        GameState start = new GameState(state);
+
+        int count = 0;
+        for (int shift = 0; ; shift += 7) {
+            int b = raw[index++] & 0xFF;
+            count |= (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                break;
+            }
+        }
+        int[] moves = new int[count];
+        for (int i = 0; i < count; i++) {
+            if (state.winner() >= 0) {
+                throw new IllegalMovementException("Lance " + (i + 1) + " depois do fim da partida");
+            }
+            int move = state.unpackMove(raw[index++] & 0xFF);
+            if (move == GameState.NO_MOVE) {
+                throw new IllegalMovementException("Lance " + (i + 1) + " ilegal");
+            }
+            moves[i] = move;
+            state.makeMove(move);
+        }
+        int declared = raw[index];
+        if (declared != state.winner()) {
+            throw new IllegalMovementException("Resultado declarado " + declared + " não confere com a partida");
+        }
+        return new GameRecord(start, moves);
+    }
+
+    @Override
+    public void close() throws IOException {
+        in.close();
+    }
+}
@@ -0,0 +1,137 @@
+import exceptions.OnitamaGameException;
+
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+
+/**
+ * Classe que grava partidas no formato binário de registros. O arquivo começa com MAGIC e cada partida ocupa:
+ * <ul>
+ * <li>1 byte de opções: START_PACKED quando a partida não começa na posição inicial do baralho;</li>
+ * <li>a posição inicial: os índices (Card.indexOf) das 5 cartas na ordem de GameState(Card[]), 1 byte cada,
+ * ou, com START_PACKED, GameState.packBoard (8 bytes) e packCards (4 bytes);</li>
+ * <li>o número de movimentos, em 1 a 3 bytes (7 bits por byte, o bit mais alto indica que há mais);</li>
+ * <li>1 byte por movimento, no formato de GameState.packMove;</li>
+ * <li>1 byte com o resultado declarado: GameState.RED, GameState.BLUE ou Match.DRAW.</li>
+ * </ul>
+ * Uma partida típica ocupa menos de 40 bytes. Os registros são lidos por GameRecordReader.
+ * <p>
+ * Uso para converter um arquivo de partidas em texto: java GameRecordWriter partidas.txt partidas.ogr
+ */
+public class GameRecordWriter implements AutoCloseable {
+
+    /**
+     * Cabeçalho do arquivo: "OGR" seguido da versão do formato
+     */
+    public static final int MAGIC = 0x4F475201;
+
+    public static final int START_PACKED = 1;
+
+    private final DataOutputStream out;
+    private long written;
+
+    /**
+     * Construtor que grava o cabeçalho
+     * @param stream A saída; é fechada junto com o gravador
+     * @exception IOException Caso a saída não possa ser escrita
+     */
+    public GameRecordWriter(OutputStream stream) throws IOException {
+        this.out = new DataOutputStream(new BufferedOutputStream(stream, 1 << 16));
+        this.out.writeInt(MAGIC);
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length != 2) {
+            System.out.println("Uso: java GameRecordWriter partidas.txt partidas.ogr");
+            return;
+        }
+        try (BufferedReader reader = Files.newBufferedReader(Paths.get(args[0]), StandardCharsets.UTF_8);
+                GameRecordWriter writer = new GameRecordWriter(Files.newOutputStream(Paths.get(args[1])))) {
+            String line;
+            long number = 0;
+            while ((line = reader.readLine()) != null) {
+                number++;
+                if (line.isBlank() || line.startsWith("#")) {
+                    continue;
+                }
+                try {
+                    GameRecord record = GameRecord.parse(line);
+                    writer.write(record, record.getEnd().winner());
+                } catch (IllegalArgumentException | OnitamaGameException e) {
+                    System.out.println("Linha " + number + " ignorada: " + e.getMessage());
+                }
+            }
+            System.out.println(writer.getWritten() + " partidas gravadas");
+        }
+    }
+
+    /**
+     * Método que grava uma partida. Os movimentos não são conferidos; isso é feito na leitura
+     * @param record A partida
+     * @param result O resultado declarado: GameState.RED, GameState.BLUE ou Match.DRAW
+     * @exception IOException Caso a saída não possa ser escrita
+     */
+    public synchronized void write(GameRecord record, int result) throws IOException {
+        write(out, record, result);
+        written++;
+    }
+
+    /**
+     * Método que codifica uma partida sem precisar de um arquivo, por exemplo para enviá-la pela rede
+     * @param record A partida
+     * @param result O resultado declarado
+     * @return O registro, sem o cabeçalho do arquivo
+     */
+    public static byte[] encode(GameRecord record, int result) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(64);
+        try {
+            write(new DataOutputStream(bytes), record, result);
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    private static void write(DataOutputStream out, GameRecord record, int result) throws IOException {
+        GameState start = record.getStart();
+        Card[] deck = {start.getCard(GameState.TABLE), start.getCard(0), start.getCard(1), start.getCard(2),
+            start.getCard(3)};
+        if (start.getPly() == 0 && new GameState(deck).packBoard() == start.packBoard()) {
+            out.writeByte(0);
+            for (Card card : deck) {
+                out.writeByte(Card.indexOf(card));
+            }
+        } else {
+            out.writeByte(START_PACKED);
+            out.writeLong(start.packBoard());
+            out.writeInt((int) start.packCards());
+        }
+
+        int[] moves = record.getMoves();
+        int count = moves.length;
+        while (count >= 0x80) {
+            out.writeByte((count & 0x7F) | 0x80);
+            count >>>= 7;
+        }
+        out.writeByte(count);
+        for (int move : moves) {
+            out.writeByte(GameState.packMove(move));
+        }
+        out.writeByte(result);
+    }
+
+    public synchronized long getWritten() {
+        return written;
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        out.close();
+    }
+}
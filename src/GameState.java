@@ -0,0 +1,815 @@
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+import enums.Color;
+import exceptions.IllegalMovementException;
+
+/**
+ * Classe que representa o estado de uma partida de forma compacta, para uso do motor de busca.
+ * As peças de cada cor ficam em máscaras de bits de 25 casas (casa = linha * 5 + coluna) e as
+ * cartas em 5 posições fixas: 0 e 1 na mão do vermelho, 2 e 3 na mão do azul e 4 na mesa.
+ * As regras são as mesmas de GameImpl: o deslocamento da carta é somado à posição da peça,
+ * sem inversão para a cor do jogador.
+ */
+public class GameState {
+
+    public static final int RED = 0;
+    public static final int BLUE = 1;
+    public static final int TABLE = 4;
+
+    /**
+     * Número máximo de movimentos em uma posição: 5 peças, 2 cartas e até 4 deslocamentos por carta
+     */
+    public static final int MAX_MOVES = 40;
+
+    public static final int NO_MOVE = -1;
+
+    private static final long[][][] PIECE_KEYS = new long[2][2][25];
+    private static final long SIDE_KEY;
+
+    static {
+        SplittableRandom random = new SplittableRandom(0x0417A3AL);
+        for (int color = 0; color < 2; color++) {
+            for (int type = 0; type < 2; type++) {
+                for (int square = 0; square < 25; square++) {
+                    PIECE_KEYS[color][type][square] = random.nextLong();
+                }
+            }
+        }
+        SIDE_KEY = random.nextLong();
+    }
+
+    private final int[] pieces = new int[2];
+    private final int[] masters = new int[2];
+    private final Card[] cards = new Card[5];
+    private DeckTable deck;
+    private final int[] deckIndex = new int[5];
+    private int sideToMove;
+    private long hash;
+
+    private int ply;
+    private int[] undoMoves = new int[64];
+    private int[] undoCaptures = new int[64];
+    private final MoveHistory history;
+
+    /**
+     * Construtor que monta a posição inicial a partir das 5 cartas sorteadas, na mesma ordem usada
+     * por GameImpl: a primeira vai para a mesa, as duas seguintes para o vermelho e as últimas para o azul.
+     * Quem começa é a cor da carta da mesa.
+     * @param deck As 5 cartas da partida
+     */
+    public GameState(Card[] deck) {
+        cards[TABLE] = deck[0];
+        cards[0] = deck[1];
+        cards[1] = deck[2];
+        cards[2] = deck[3];
+        cards[3] = deck[4];
+        pieces[RED] = 0b11111 << 20;
+        pieces[BLUE] = 0b11111;
+        masters[RED] = 22;
+        masters[BLUE] = 2;
+        sideToMove = deck[0].getColor() == Color.BLUE ? BLUE : RED;
+        bindDeck();
+        hash = computeHash();
+        history = new MoveHistory();
+        history.push(hash);
+    }
+
+    /**
+     * Construtor de cópia. O histórico de posições é copiado, para que a cópia continue detectando
+     * repetições, mas os movimentos anteriores à cópia não podem ser desfeitos nela
+     * @param other O estado a ser copiado
+     */
+    public GameState(GameState other) {
+        pieces[RED] = other.pieces[RED];
+        pieces[BLUE] = other.pieces[BLUE];
+        masters[RED] = other.masters[RED];
+        masters[BLUE] = other.masters[BLUE];
+        System.arraycopy(other.cards, 0, cards, 0, 5);
+        deck = other.deck;
+        System.arraycopy(other.deckIndex, 0, deckIndex, 0, 5);
+        sideToMove = other.sideToMove;
+        hash = other.hash;
+        history = new MoveHistory(other.history);
+    }
+
+    private GameState() {
+        history = new MoveHistory();
+    }
+
+    /**
+     * Método que lê uma posição na notação textual do projeto, por exemplo:
+     * "bbBbb/-----/-----/-----/rrRrr Tiger,Dragon Frog,Rabbit Crab r".
+     * O tabuleiro vai da linha 0 à 4 ('r'/'b' aprendiz, 'R'/'B' mestre, '-' vazio), seguido das cartas
+     * do vermelho, das cartas do azul, da carta da mesa e de quem joga ('r' ou 'b').
+     * @param notation A posição em texto
+     * @return O estado correspondente
+     * @exception IllegalArgumentException Caso o texto não esteja na notação esperada
+     */
+    public static GameState parse(String notation) {
+        String[] fields = notation.trim().split("\\s+");
+        if (fields.length < 5) {
+            throw new IllegalArgumentException("Posição incompleta: " + notation);
+        }
+        String[] rows = fields[0].split("/");
+        if (rows.length != 5) {
+            throw new IllegalArgumentException("O tabuleiro deve ter 5 linhas: " + fields[0]);
+        }
+
+        GameState state = new GameState();
+        state.masters[RED] = -1;
+        state.masters[BLUE] = -1;
+        for (int row = 0; row < 5; row++) {
+            if (rows[row].length() != 5) {
+                throw new IllegalArgumentException("A linha " + row + " deve ter 5 casas: " + rows[row]);
+            }
+            for (int col = 0; col < 5; col++) {
+                int square = row * 5 + col;
+                char c = rows[row].charAt(col);
+                switch (c) {
+                    case 'R': state.masters[RED] = master(state.masters[RED], square); state.pieces[RED] |= 1 << square; break;
+                    case 'r': state.pieces[RED] |= 1 << square; break;
+                    case 'B': state.masters[BLUE] = master(state.masters[BLUE], square); state.pieces[BLUE] |= 1 << square; break;
+                    case 'b': state.pieces[BLUE] |= 1 << square; break;
+                    case '-': break;
+                    default: throw new IllegalArgumentException("Casa inválida: " + c);
+                }
+            }
+        }
+
+        String[] red = fields[1].split(",");
+        String[] blue = fields[2].split(",");
+        if (red.length != 2 || blue.length != 2) {
+            throw new IllegalArgumentException("Cada jogador deve ter 2 cartas: " + notation);
+        }
+        state.cards[0] = Card.byName(red[0]);
+        state.cards[1] = Card.byName(red[1]);
+        state.cards[2] = Card.byName(blue[0]);
+        state.cards[3] = Card.byName(blue[1]);
+        state.cards[TABLE] = Card.byName(fields[3]);
+
+        switch (fields[4]) {
+            case "r": state.sideToMove = RED; break;
+            case "b": state.sideToMove = BLUE; break;
+            default: throw new IllegalArgumentException("Jogador inválido: " + fields[4]);
+        }
+        state.bindDeck();
+        state.hash = state.computeHash();
+        state.history.push(state.hash);
+        return state;
+    }
+
+    private static int master(int previous, int square) {
+        if (previous >= 0) {
+            throw new IllegalArgumentException("Mais de um mestre da mesma cor");
+        }
+        return square;
+    }
+
+    /**
+     * Método que monta o estado de uma partida em andamento, copiando o tabuleiro e as cartas de cada jogador.
+     * Uma GameImpl é lida de uma vez com snapshot, então o estado é consistente mesmo com outras threads jogando
+     * @param game A partida
+     * @param sideToMove A cor de quem joga
+     * @return O estado correspondente, com um histórico contendo apenas a posição atual
+     */
+    public static GameState of(Game game, Color sideToMove) {
+        if (game instanceof GameImpl) {
+            GameState current = ((GameImpl) game).snapshot();
+            GameState state = new GameState();
+            state.pieces[RED] = current.pieces[RED];
+            state.pieces[BLUE] = current.pieces[BLUE];
+            state.masters[RED] = current.masters[RED];
+            state.masters[BLUE] = current.masters[BLUE];
+            System.arraycopy(current.cards, 0, state.cards, 0, 5);
+            state.sideToMove = sideToMove == Color.RED ? RED : BLUE;
+            state.bindDeck();
+            state.hash = state.computeHash();
+            state.history.push(state.hash);
+            return state;
+        }
+        Piece[] board = new Piece[25];
+        for (int square = 0; square < 25; square++) {
+            board[square] = game.getPiece(new Position(square / 5, square % 5));
+        }
+        return of(board, game.getRedPlayer().getCards(), game.getBluePlayer().getCards(), game.getTableCard(),
+            sideToMove);
+    }
+
+    /**
+     * Método que monta o estado a partir das peças e cartas de uma partida, sem passar pelos métodos de Game.
+     * Usado por GameImpl enquanto segura a própria trava
+     * @param board A peça de cada casa (linha * 5 + coluna), ou null para casa vazia
+     * @param red As cartas do vermelho
+     * @param blue As cartas do azul
+     * @param table A carta da mesa
+     * @param sideToMove A cor de quem joga
+     * @return O estado correspondente, com um histórico contendo apenas a posição atual
+     */
+    static GameState of(Piece[] board, Card[] red, Card[] blue, Card table, Color sideToMove) {
+        GameState state = new GameState();
+        state.masters[RED] = -1;
+        state.masters[BLUE] = -1;
+        for (int square = 0; square < 25; square++) {
+            Piece piece = board[square];
+            if (piece != null) {
+                int color = piece.getColor() == Color.RED ? RED : BLUE;
+                state.pieces[color] |= 1 << square;
+                if (piece.isMaster()) {
+                    state.masters[color] = square;
+                }
+            }
+        }
+        state.cards[0] = red[0];
+        state.cards[1] = red[1];
+        state.cards[2] = blue[0];
+        state.cards[3] = blue[1];
+        state.cards[TABLE] = table;
+        state.sideToMove = sideToMove == Color.RED ? RED : BLUE;
+        state.bindDeck();
+        state.hash = state.computeHash();
+        state.history.push(state.hash);
+        return state;
+    }
+
+    /**
+     * Método que escreve a posição na notação textual lida por parse
+     * @return A posição em texto
+     */
+    public String toNotation() {
+        StringBuilder sb = new StringBuilder(64);
+        for (int square = 0; square < 25; square++) {
+            if (square > 0 && square % 5 == 0) {
+                sb.append('/');
+            }
+            int bit = 1 << square;
+            if ((pieces[RED] & bit) != 0) {
+                sb.append(masters[RED] == square ? 'R' : 'r');
+            } else if ((pieces[BLUE] & bit) != 0) {
+                sb.append(masters[BLUE] == square ? 'B' : 'b');
+            } else {
+                sb.append('-');
+            }
+        }
+        sb.append(' ').append(cards[0].getName()).append(',').append(cards[1].getName());
+        sb.append(' ').append(cards[2].getName()).append(',').append(cards[3].getName());
+        sb.append(' ').append(cards[TABLE].getName());
+        sb.append(' ').append(sideToMove == RED ? 'r' : 'b');
+        return sb.toString();
+    }
+
+    @Override
+    public String toString() {
+        return toNotation();
+    }
+
+    /**
+     * Método que devolve a primeira metade da posição compactada: as máscaras de peças do vermelho
+     * (bits 0 a 24) e do azul (bits 25 a 49), a ordem do mestre entre as peças de cada cor
+     * (3 bits cada, 7 se capturado) e quem joga (bit 56)
+     * @return Os 57 bits de tabuleiro
+     */
+    public long packBoard() {
+        return pieces[RED] | ((long) pieces[BLUE] << 25)
+            | ((long) masterRank(RED) << 50) | ((long) masterRank(BLUE) << 53)
+            | ((long) sideToMove << 56);
+    }
+
+    /**
+     * Método que devolve a segunda metade da posição compactada: o número (Card.indexOf) da carta
+     * em cada uma das 5 posições de carta, 6 bits cada
+     * @return Os 30 bits de cartas
+     */
+    public long packCards() {
+        long packed = 0;
+        for (int slot = 0; slot < 5; slot++) {
+            packed |= (long) Card.indexOf(cards[slot]) << (slot * 6);
+        }
+        return packed;
+    }
+
+    /**
+     * Método que reconstrói uma posição compactada por packBoard e packCards. A posição não é conferida; para
+     * dados de fora do programa, chame validate
+     * @param board A metade do tabuleiro
+     * @param packedCards A metade das cartas
+     * @return O estado correspondente, com um histórico contendo apenas esta posição
+     */
+    public static GameState unpack(long board, long packedCards) {
+        GameState state = new GameState();
+        state.pieces[RED] = (int) (board & 0x1FFFFFF);
+        state.pieces[BLUE] = (int) ((board >>> 25) & 0x1FFFFFF);
+        state.masters[RED] = squareOfRank(state.pieces[RED], (int) (board >>> 50) & 7);
+        state.masters[BLUE] = squareOfRank(state.pieces[BLUE], (int) (board >>> 53) & 7);
+        state.sideToMove = (int) (board >>> 56) & 1;
+        for (int slot = 0; slot < 5; slot++) {
+            state.cards[slot] = Card.byIndex((int) (packedCards >>> (slot * 6)) & 63);
+        }
+        state.bindDeck();
+        state.hash = state.computeHash();
+        state.history.push(state.hash);
+        return state;
+    }
+
+    /**
+     * Método que confere se a posição pode acontecer numa partida: as peças das duas cores não dividem casas,
+     * cada cor tem de 1 a 5 peças, o mestre de cada cor (se não foi capturado) é uma das suas peças e as 5
+     * cartas são diferentes. Deve ser chamado em posições vindas de fora do programa, como arquivos e a rede
+     * @exception IllegalArgumentException Caso a posição seja impossível, com o motivo na mensagem
+     */
+    public void validate() {
+        if ((pieces[RED] & pieces[BLUE]) != 0) {
+            throw new IllegalArgumentException("peças das duas cores na mesma casa");
+        }
+        for (int color = 0; color < 2; color++) {
+            int count = Integer.bitCount(pieces[color]);
+            if (count < 1 || count > 5) {
+                throw new IllegalArgumentException("número de peças inválido: " + count);
+            }
+            int master = masters[color];
+            if (master != -1 && (master < 0 || master > 24 || (pieces[color] & (1 << master)) == 0)) {
+                throw new IllegalArgumentException("mestre fora das peças da sua cor");
+            }
+        }
+        for (int i = 0; i < 5; i++) {
+            for (int j = i + 1; j < 5; j++) {
+                if (cards[i].getName().equals(cards[j].getName())) {
+                    throw new IllegalArgumentException("carta repetida: " + cards[i].getName());
+                }
+            }
+        }
+    }
+
+    private int masterRank(int color) {
+        int master = masters[color];
+        return master < 0 ? 7 : Integer.bitCount(pieces[color] & ((1 << master) - 1));
+    }
+
+    private static int squareOfRank(int mask, int rank) {
+        if (rank == 7) {
+            return -1;
+        }
+        int rest = mask;
+        for (int i = 0; i < rank; i++) {
+            rest &= rest - 1;
+        }
+        return Integer.numberOfTrailingZeros(rest);
+    }
+
+    /**
+     * Método que devolve a máscara de bits com todas as peças de uma cor
+     * @param color RED ou BLUE
+     * @return Máscara de 25 bits
+     */
+    public int getPieces(int color) {
+        return pieces[color];
+    }
+
+    /**
+     * Método que devolve a casa do mestre de uma cor
+     * @param color RED ou BLUE
+     * @return A casa do mestre ou -1 caso ele tenha sido capturado
+     */
+    public int getMaster(int color) {
+        return masters[color];
+    }
+
+    /**
+     * Método que devolve a carta em uma das 5 posições de carta
+     * @param slot 0 e 1 para o vermelho, 2 e 3 para o azul e 4 (TABLE) para a mesa
+     * @return A carta na posição
+     */
+    public Card getCard(int slot) {
+        return cards[slot];
+    }
+
+    /**
+     * Método que devolve a cor de quem joga
+     * @return RED ou BLUE
+     */
+    public int getSideToMove() {
+        return sideToMove;
+    }
+
+    /**
+     * Método que devolve o hash Zobrist da posição. Posições iguais têm o mesmo hash, independente
+     * da ordem das cartas na mão de cada jogador
+     * @return O hash de 64 bits
+     */
+    public long getHash() {
+        return hash;
+    }
+
+    /**
+     * Método que devolve o número de movimentos feitos com makeMove e ainda não desfeitos
+     * @return O número de movimentos no histórico
+     */
+    public int getPly() {
+        return ply;
+    }
+
+    /**
+     * Método que devolve o último movimento aplicado com makeMove e ainda não desfeito
+     * @return O movimento codificado ou NO_MOVE caso não haja movimento para desfazer
+     */
+    public int getLastMove() {
+        return ply == 0 ? NO_MOVE : undoMoves[ply - 1];
+    }
+
+    /**
+     * Método que devolve o que o último movimento capturou
+     * @return 0 se nada foi capturado, 1 para um aprendiz e 2 para o mestre
+     */
+    public int getLastCapture() {
+        return ply == 0 ? 0 : undoCaptures[ply - 1];
+    }
+
+    /**
+     * Método que devolve quantas vezes a posição atual já apareceu na partida, contando a atual
+     * @return 1 para uma posição nova, 2 ou mais para uma posição repetida
+     */
+    public int repetitions() {
+        return history.count(hash);
+    }
+
+    /**
+     * Método que devolve o histórico com o hash de cada posição da partida
+     * @return O histórico, que não deve ser alterado
+     */
+    public MoveHistory getHistory() {
+        return history;
+    }
+
+    /**
+     * Método que devolve a casa do templo que uma cor precisa alcançar com o mestre para vencer
+     * @param color RED ou BLUE
+     * @return A casa do templo adversário
+     */
+    public static int targetTemple(int color) {
+        return color == RED ? 2 : 22;
+    }
+
+    /**
+     * Método que confere se alguma cor venceu, com os mesmos critérios de GameImpl.checkVictory
+     * @return RED ou BLUE para o vencedor, ou -1 caso a partida não tenha terminado
+     */
+    public int winner() {
+        if (masters[BLUE] < 0 || masters[RED] == targetTemple(RED)) {
+            return RED;
+        }
+        if (masters[RED] < 0 || masters[BLUE] == targetTemple(BLUE)) {
+            return BLUE;
+        }
+        return -1;
+    }
+
+    /**
+     * Método que gera todos os movimentos do jogador da vez
+     * @param moves Vetor com pelo menos MAX_MOVES posições que recebe os movimentos
+     * @return O número de movimentos gerados
+     */
+    public int generateMoves(int[] moves) {
+        return generateMoves(sideToMove, moves);
+    }
+
+    /**
+     * Método que gera todos os movimentos de uma cor com as cartas que ela tem na mão,
+     * mesmo que não seja a vez dela
+     * @param color RED ou BLUE
+     * @param moves Vetor com pelo menos MAX_MOVES posições que recebe os movimentos
+     * @return O número de movimentos gerados
+     */
+    public int generateMoves(int color, int[] moves) {
+        int count = 0;
+        int own = pieces[color];
+        for (int hand = 0; hand < 2; hand++) {
+            int[][] table = deck.moves(deckIndex[color * 2 + hand]);
+            int handBit = hand << 10;
+            for (int rest = own; rest != 0; rest &= rest - 1) {
+                for (int move : table[Integer.numberOfTrailingZeros(rest)]) {
+                    if ((own & (1 << moveTo(move))) == 0) {
+                        moves[count++] = move | handBit;
+                    }
+                }
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Método que aplica um movimento gerado por generateMoves. Pode ser desfeito com undoMove
+     * @param move O movimento codificado
+     */
+    public void makeMove(int move) {
+        int side = sideToMove;
+        int opponent = 1 - side;
+        int from = moveFrom(move);
+        int to = moveTo(move);
+        int toBit = 1 << to;
+
+        int captured = 0;
+        if ((pieces[opponent] & toBit) != 0) {
+            if (masters[opponent] == to) {
+                captured = 2;
+                masters[opponent] = -1;
+                hash ^= PIECE_KEYS[opponent][1][to];
+            } else {
+                captured = 1;
+                hash ^= PIECE_KEYS[opponent][0][to];
+            }
+            pieces[opponent] ^= toBit;
+        }
+
+        pieces[side] ^= (1 << from) | toBit;
+        int type = masters[side] == from ? 1 : 0;
+        if (type == 1) {
+            masters[side] = to;
+        }
+        hash ^= PIECE_KEYS[side][type][from] ^ PIECE_KEYS[side][type][to];
+
+        swapWithTable(side * 2 + moveHand(move), side);
+        sideToMove = opponent;
+        hash ^= SIDE_KEY;
+
+        if (ply == undoMoves.length) {
+            growHistory();
+        }
+        undoMoves[ply] = move;
+        undoCaptures[ply] = captured;
+        history.push(hash);
+        ply++;
+    }
+
+    /**
+     * Método que desfaz o último movimento aplicado com makeMove
+     */
+    public void undoMove() {
+        ply--;
+        history.pop();
+        int move = undoMoves[ply];
+        int captured = undoCaptures[ply];
+        int opponent = sideToMove;
+        int side = 1 - opponent;
+        int from = moveFrom(move);
+        int to = moveTo(move);
+
+        sideToMove = side;
+        hash ^= SIDE_KEY;
+        swapWithTable(side * 2 + moveHand(move), side);
+
+        pieces[side] ^= (1 << from) | (1 << to);
+        int type = masters[side] == to ? 1 : 0;
+        if (type == 1) {
+            masters[side] = from;
+        }
+        hash ^= PIECE_KEYS[side][type][from] ^ PIECE_KEYS[side][type][to];
+
+        if (captured != 0) {
+            pieces[opponent] |= 1 << to;
+            if (captured == 2) {
+                masters[opponent] = to;
+            }
+            hash ^= PIECE_KEYS[opponent][captured - 1][to];
+        }
+    }
+
+    private void swapWithTable(int slot, int owner) {
+        Card used = cards[slot];
+        Card table = cards[TABLE];
+        hash ^= cardKey(used, owner) ^ cardKey(table, TABLE) ^ cardKey(used, TABLE) ^ cardKey(table, owner);
+        cards[slot] = table;
+        cards[TABLE] = used;
+        int index = deckIndex[slot];
+        deckIndex[slot] = deckIndex[TABLE];
+        deckIndex[TABLE] = index;
+    }
+
+    private void bindDeck() {
+        deck = DeckTable.of(cards);
+        for (int slot = 0; slot < 5; slot++) {
+            deckIndex[slot] = deck.indexOf(cards[slot]);
+        }
+    }
+
+    private void growHistory() {
+        int size = undoMoves.length * 2;
+        undoMoves = Arrays.copyOf(undoMoves, size);
+        undoCaptures = Arrays.copyOf(undoCaptures, size);
+    }
+
+    private long computeHash() {
+        long h = sideToMove == BLUE ? SIDE_KEY : 0;
+        for (int color = 0; color < 2; color++) {
+            for (int rest = pieces[color]; rest != 0; rest &= rest - 1) {
+                int square = Integer.numberOfTrailingZeros(rest);
+                h ^= PIECE_KEYS[color][masters[color] == square ? 1 : 0][square];
+            }
+        }
+        for (int slot = 0; slot < 5; slot++) {
+            h ^= cardKey(cards[slot], slot == TABLE ? TABLE : slot / 2);
+        }
+        return h;
+    }
+
+    private static long cardKey(Card card, int location) {
+        long z = card.getName().hashCode() * 0x9E3779B97F4A7C15L + location;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    /**
+     * Método que confere se um movimento é legal na posição atual
+     * @param move O movimento codificado
+     * @return true caso o movimento esteja entre os gerados por generateMoves
+     */
+    public boolean isLegal(int move) {
+        int[] moves = new int[MAX_MOVES];
+        int count = generateMoves(moves);
+        for (int i = 0; i < count; i++) {
+            if (moves[i] == move) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Método que converte os argumentos de Game.makeMove em um movimento codificado
+     * @param card A carta usada
+     * @param cardMove O deslocamento da carta
+     * @param currentPos A posição da peça
+     * @return O movimento codificado
+     * @exception IllegalMovementException Caso o movimento não seja legal na posição atual
+     */
+    public int findMove(Card card, Position cardMove, Position currentPos) {
+        int[] moves = new int[MAX_MOVES];
+        int count = generateMoves(moves);
+        for (int i = 0; i < count; i++) {
+            int move = moves[i];
+            if (moveCard(move).equals(card) && moveOffset(move).equals(cardMove)
+                    && moveFrom(move) == currentPos.getRow() * 5 + currentPos.getCol()) {
+                return move;
+            }
+        }
+        throw new IllegalMovementException("Movimento inválido: " + card.getName() + " " + cardMove + " " + currentPos);
+    }
+
+    /**
+     * Método que codifica um movimento em um int
+     * @param hand A posição da carta na mão de quem joga (0 ou 1)
+     * @param offset O índice do deslocamento em Card.getPositions
+     * @param from A casa de origem
+     * @param to A casa de destino
+     * @return O movimento codificado
+     */
+    public static int encodeMove(int hand, int offset, int from, int to) {
+        return (offset << 11) | (hand << 10) | (from << 5) | to;
+    }
+
+    public static int moveTo(int move) {
+        return move & 31;
+    }
+
+    public static int moveFrom(int move) {
+        return (move >>> 5) & 31;
+    }
+
+    public static int moveHand(int move) {
+        return (move >>> 10) & 1;
+    }
+
+    public static int moveOffsetIndex(int move) {
+        return (move >>> 11) & 3;
+    }
+
+    /**
+     * Método que devolve a carta usada por um movimento de quem joga na posição atual
+     * @param move O movimento codificado
+     * @return A carta, como seria passada para Game.makeMove
+     */
+    public Card moveCard(int move) {
+        return cards[sideToMove * 2 + moveHand(move)];
+    }
+
+    /**
+     * Método que devolve o número da carta usada por um movimento de quem joga, sem procurar a carta pelo nome.
+     * Usado pelo motor para indexar tabelas por carta
+     * @param move O movimento codificado
+     * @return O número da carta, como em DeckTable.cardId
+     */
+    public int moveCardId(int move) {
+        return deck.cardId(deckIndex[sideToMove * 2 + moveHand(move)]);
+    }
+
+    /**
+     * Método que devolve o deslocamento da carta usado por um movimento de quem joga na posição atual
+     * @param move O movimento codificado
+     * @return O deslocamento, como seria passado para Game.makeMove
+     */
+    public Position moveOffset(int move) {
+        return moveCard(move).getPositions()[moveOffsetIndex(move)];
+    }
+
+    /**
+     * Método que devolve a casa de origem de um movimento como Position
+     * @param move O movimento codificado
+     * @return A posição da peça, como seria passada para Game.makeMove
+     */
+    public static Position moveFromPosition(int move) {
+        int from = moveFrom(move);
+        return new Position(from / 5, from % 5);
+    }
+
+    /**
+     * Método que descreve um movimento de quem joga nos termos de Game.makeMove
+     * @param move O movimento codificado
+     * @return Texto com a carta, a posição da peça e o deslocamento
+     */
+    public String moveToString(int move) {
+        return moveCard(move).getName() + " " + moveFromPosition(move) + " " + moveOffset(move);
+    }
+
+    /**
+     * Método que escreve um movimento de quem joga na notação dos registros de partida, por exemplo
+     * "Tiger:c1-c3": a carta, a casa de origem e a de destino. As colunas vão de 'a' a 'e' e as linhas de
+     * 1 (linha 4, a do vermelho) a 5 (linha 0, a do azul)
+     * @param move O movimento codificado
+     * @return O movimento em texto
+     */
+    public String moveToNotation(int move) {
+        return moveCard(move).getName() + ":" + squareName(moveFrom(move)) + "-" + squareName(moveTo(move));
+    }
+
+    /**
+     * Método que lê um movimento escrito por moveToNotation
+     * @param text O movimento em texto
+     * @return O movimento codificado
+     * @exception IllegalMovementException Caso o texto não descreva um movimento legal na posição atual
+     */
+    public int parseMove(String text) {
+        int colon = text.indexOf(':');
+        int dash = text.indexOf('-', colon + 1);
+        if (colon > 0 && dash == colon + 3 && text.length() == dash + 3) {
+            String card = text.substring(0, colon);
+            int from = parseSquare(text, colon + 1);
+            int to = parseSquare(text, dash + 1);
+            int[] moves = new int[MAX_MOVES];
+            int count = generateMoves(moves);
+            for (int i = 0; i < count; i++) {
+                int move = moves[i];
+                if (moveFrom(move) == from && moveTo(move) == to && moveCard(move).getName().equals(card)) {
+                    return move;
+                }
+            }
+        }
+        throw new IllegalMovementException("Movimento inválido: " + text);
+    }
+
+    /**
+     * Método que compacta um movimento em um byte: a posição da carta na mão (1 bit), o índice do
+     * deslocamento na carta (2 bits) e a casa de origem (5 bits). O destino não é guardado, porque
+     * sai da origem e do deslocamento
+     * @param move O movimento codificado
+     * @return O movimento em um byte, de 0 a 255
+     */
+    public static int packMove(int move) {
+        return (moveHand(move) << 7) | (moveOffsetIndex(move) << 5) | moveFrom(move);
+    }
+
+    /**
+     * Método que reconstrói um movimento compactado por packMove, conferindo se ele é legal na posição atual
+     * sem gerar todos os movimentos
+     * @param packed O movimento em um byte
+     * @return O movimento codificado, ou NO_MOVE caso ele não seja legal
+     */
+    public int unpackMove(int packed) {
+        int hand = (packed >>> 7) & 1;
+        int offsetIndex = (packed >>> 5) & 3;
+        int from = packed & 31;
+        int own = pieces[sideToMove];
+        if (from >= 25 || (own & (1 << from)) == 0) {
+            return NO_MOVE;
+        }
+        Position[] offsets = cards[sideToMove * 2 + hand].getPositions();
+        if (offsetIndex >= offsets.length) {
+            return NO_MOVE;
+        }
+        int toRow = from / 5 + offsets[offsetIndex].getRow();
+        int toCol = from % 5 + offsets[offsetIndex].getCol();
+        if (toRow < 0 || toRow > 4 || toCol < 0 || toCol > 4 || (own & (1 << (toRow * 5 + toCol))) != 0) {
+            return NO_MOVE;
+        }
+        return encodeMove(hand, offsetIndex, from, toRow * 5 + toCol);
+    }
+
+    private static String squareName(int square) {
+        return "" + (char) ('a' + square % 5) + (char) ('5' - square / 5);
+    }
+
+    private static int parseSquare(String text, int index) {
+        int col = text.charAt(index) - 'a';
+        int row = '5' - text.charAt(index + 1);
+        return col >= 0 && col < 5 && row >= 0 && row < 5 ? row * 5 + col : -1;
+    }
+}
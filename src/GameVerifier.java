@@ -0,0 +1,173 @@
+import exceptions.OnitamaGameException;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Ferramenta que confere arquivos de partidas gravados por GameRecordWriter, usando todos os núcleos.
+ * A thread principal só separa os bytes das partidas em lotes; cada lote é reproduzido pelas regras em
+ * outra thread. No máximo alguns lotes ficam em memória ao mesmo tempo, qualquer que seja o tamanho do arquivo.
+ * <p>
+ * Uso: java GameVerifier partidas.ogr [...] [--threads N]
+ */
+public class GameVerifier {
+
+    /**
+     * Número de partidas de cada lote
+     */
+    public static final int BATCH_SIZE = 4096;
+
+    /**
+     * Número máximo de partidas inválidas descritas por lote
+     */
+    private static final int MAX_ERRORS = 10;
+
+    private final int threads;
+
+    private long valid;
+    private long invalid;
+    private final List<String> errors = new ArrayList<>();
+
+    /**
+     * Construtor que define o número de threads
+     * @param threads Número de lotes conferidos ao mesmo tempo
+     */
+    public GameVerifier(int threads) {
+        this.threads = threads;
+    }
+
+    public static void main(String[] args) throws Exception {
+        int threads = Runtime.getRuntime().availableProcessors();
+        List<Path> files = new ArrayList<>();
+        for (int i = 0; i < args.length; i++) {
+            if (args[i].equals("--threads")) {
+                threads = Integer.parseInt(args[++i]);
+            } else {
+                files.add(Paths.get(args[i]));
+            }
+        }
+        if (files.isEmpty()) {
+            System.out.println("Uso: java GameVerifier partidas.ogr [...] [--threads N]");
+            return;
+        }
+
+        GameVerifier verifier = new GameVerifier(threads);
+        long start = System.nanoTime();
+        for (Path file : files) {
+            verifier.verify(file);
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+        for (String error : verifier.getErrors()) {
+            System.out.println(error);
+        }
+        long total = verifier.getValid() + verifier.getInvalid();
+        System.out.printf("%d partidas válidas, %d inválidas, %.0f partidas por minuto%n",
+            verifier.getValid(), verifier.getInvalid(), total / seconds * 60);
+    }
+
+    /**
+     * Método que confere todas as partidas de um arquivo, somando o resultado aos contadores
+     * @param file O arquivo
+     * @exception IOException Caso o arquivo não possa ser lido ou esteja truncado
+     * @exception InterruptedException Caso a thread seja interrompida
+     */
+    public void verify(Path file) throws IOException, InterruptedException {
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        Deque<Future<Batch>> window = new ArrayDeque<>();
+        try (GameRecordReader reader = new GameRecordReader(Files.newInputStream(file))) {
+            long first = 1;
+            while (true) {
+                byte[][] games = new byte[BATCH_SIZE][];
+                int count = 0;
+                while (count < BATCH_SIZE && (games[count] = reader.readRaw()) != null) {
+                    count++;
+                }
+                if (count == 0) {
+                    break;
+                }
+                Batch batch = new Batch(file, first, games, count);
+                window.add(executor.submit(batch::verify));
+                first += count;
+                if (window.size() >= threads * 2) {
+                    add(window.poll());
+                }
+            }
+            while (!window.isEmpty()) {
+                add(window.poll());
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private void add(Future<Batch> future) throws InterruptedException, IOException {
+        Batch batch;
+        try {
+            batch = future.get();
+        } catch (ExecutionException e) {
+            throw new IOException("Falha na conferência", e.getCause());
+        }
+        valid += batch.valid;
+        invalid += batch.invalid;
+        errors.addAll(batch.errors);
+    }
+
+    public long getValid() {
+        return valid;
+    }
+
+    public long getInvalid() {
+        return invalid;
+    }
+
+    /**
+     * Método que devolve a descrição das partidas inválidas, limitada a MAX_ERRORS por lote
+     * @return As descrições, com o arquivo e o número da partida
+     */
+    public List<String> getErrors() {
+        return errors;
+    }
+
+    private static class Batch {
+
+        final Path file;
+        final long first;
+        final byte[][] games;
+        final int count;
+        long valid;
+        long invalid;
+        final List<String> errors = new ArrayList<>();
+
+        Batch(Path file, long first, byte[][] games, int count) {
+            this.file = file;
+            this.first = first;
+            this.games = games;
+            this.count = count;
+        }
+
+        Batch verify() {
+            for (int i = 0; i < count; i++) {
+                try {
+                    GameRecordReader.decode(games[i]);
+                    valid++;
+                } catch (OnitamaGameException e) {
+                    invalid++;
+                    if (errors.size() < MAX_ERRORS) {
+                        errors.add(file + " partida " + (first + i) + ": " + e.getMessage());
+                    }
+                }
+            }
+            return this;
+        }
+    }
+}
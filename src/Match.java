@@ -0,0 +1,232 @@
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+import enums.Color;
+
+/**
+ * Classe que joga uma partida completa entre dois motores sobre GameState, sem interação com o console.
+ * A partida termina com vitória (mesmos critérios de checkVictory) ou empate por repetição tripla,
+ * limite de movimentos ou falta de movimentos legais. Com relógio, quem fica sem tempo perde, e cada motor
+ * pode pensar durante o tempo do adversário com Ponderer.
+ */
+public class Match {
+
+    public static final int DRAW = -1;
+
+    /**
+     * Número de movimentos após o qual a partida termina empatada
+     */
+    public static final int MOVE_LIMIT = 200;
+
+    private final GameState start;
+    private int[] moves = new int[64];
+    private int[] scores = new int[64];
+    private int length;
+    private int winner = DRAW;
+    private final long[] ponderHits = new long[2];
+    private final long[] ponderMisses = new long[2];
+
+    private Match(GameState start) {
+        this.start = new GameState(start);
+    }
+
+    /**
+     * Método que joga uma partida. A posição inicial recebe alguns movimentos aleatórios antes de os motores
+     * começarem, para que partidas com o mesmo baralho não sejam idênticas
+     * @param deck As 5 cartas, na ordem de GameState(Card[])
+     * @param randomPlies Número de movimentos aleatórios no começo
+     * @param seed Semente dos movimentos aleatórios; a mesma semente gera a mesma abertura
+     * @param configs As configurações do vermelho e do azul, nessa ordem
+     * @param engines Os motores do vermelho e do azul, criados pelas configurações
+     * @return A partida jogada
+     */
+    public static Match play(Card[] deck, int randomPlies, long seed, EngineConfig[] configs, Engine[] engines) {
+        return play(opening(deck, randomPlies, seed), configs, engines);
+    }
+
+    /**
+     * Método que joga uma partida com relógio, com a mesma abertura aleatória de play(Card[], int, long, ...)
+     * @param deck As 5 cartas, na ordem de GameState(Card[])
+     * @param randomPlies Número de movimentos aleatórios no começo
+     * @param seed Semente dos movimentos aleatórios; a mesma semente gera a mesma abertura
+     * @param players Os jogadores do vermelho e do azul, nessa ordem, com motores diferentes
+     * @param clock O relógio da partida, ainda parado
+     * @param ponder Se os motores pensam durante o tempo do adversário
+     * @return A partida jogada
+     */
+    public static Match play(Card[] deck, int randomPlies, long seed, Ponderer[] players, Clock clock, boolean ponder) {
+        return play(opening(deck, randomPlies, seed), players, clock, ponder);
+    }
+
+    private static GameState opening(Card[] deck, int randomPlies, long seed) {
+        GameState state = new GameState(deck);
+        SplittableRandom random = new SplittableRandom(seed);
+        int[] buffer = new int[GameState.MAX_MOVES];
+        for (int i = 0; i < randomPlies && state.winner() < 0; i++) {
+            int count = state.generateMoves(buffer);
+            if (count == 0) {
+                break;
+            }
+            state.makeMove(buffer[random.nextInt(count)]);
+        }
+        return state;
+    }
+
+    /**
+     * Método que joga uma partida a partir de uma posição
+     * @param position A posição inicial; não é alterada
+     * @param configs As configurações do vermelho e do azul, nessa ordem
+     * @param engines Os motores do vermelho e do azul, criados pelas configurações
+     * @return A partida jogada
+     */
+    public static Match play(GameState position, EngineConfig[] configs, Engine[] engines) {
+        Match match = new Match(position);
+        GameState state = new GameState(position);
+        engines[GameState.RED].clearTable();
+        engines[GameState.BLUE].clearTable();
+        while (true) {
+            int winner = state.winner();
+            if (winner >= 0) {
+                match.winner = winner;
+                break;
+            }
+            if (state.repetitions() >= GameImpl.REPETITION_LIMIT || match.length >= MOVE_LIMIT) {
+                break;
+            }
+            int side = state.getSideToMove();
+            SearchResult result = configs[side].search(engines[side], state);
+            if (result.getBestMove() == GameState.NO_MOVE) {
+                break;
+            }
+            state.makeMove(result.getBestMove());
+            match.add(result.getBestMove(), result.getScore());
+        }
+        return match;
+    }
+
+    /**
+     * Método que joga uma partida com relógio a partir de uma posição. Cada motor busca pelo tempo que o
+     * relógio permite, sem usar a profundidade ou o tempo fixo da sua configuração
+     * @param position A posição inicial; não é alterada
+     * @param players Os jogadores do vermelho e do azul, nessa ordem, com motores diferentes
+     * @param clock O relógio da partida, ainda parado
+     * @param ponder Se os motores pensam durante o tempo do adversário
+     * @return A partida jogada
+     */
+    public static Match play(GameState position, Ponderer[] players, Clock clock, boolean ponder) {
+        Match match = new Match(position);
+        GameState state = new GameState(position);
+        for (int side = 0; side < 2; side++) {
+            players[side].newGame();
+            match.ponderHits[side] = -players[side].getPonderHits();
+            match.ponderMisses[side] = -players[side].getPonderMisses();
+        }
+        int lastMove = GameState.NO_MOVE;
+        try {
+            while (true) {
+                int winner = state.winner();
+                if (winner >= 0) {
+                    match.winner = winner;
+                    break;
+                }
+                if (state.repetitions() >= GameImpl.REPETITION_LIMIT || match.length >= MOVE_LIMIT) {
+                    break;
+                }
+                int side = state.getSideToMove();
+                Color color = side == GameState.RED ? Color.RED : Color.BLUE;
+                clock.start(color);
+                SearchResult result = players[side].think(state, lastMove, clock);
+                clock.stop();
+                if (clock.hasFlagged(color)) {
+                    match.winner = 1 - side;
+                    break;
+                }
+                if (result.getBestMove() == GameState.NO_MOVE) {
+                    break;
+                }
+                if (ponder) {
+                    players[side].startPondering(state, result.getBestMove());
+                }
+                state.makeMove(result.getBestMove());
+                match.add(result.getBestMove(), result.getScore());
+                lastMove = result.getBestMove();
+            }
+        } finally {
+            clock.pause();
+            for (int side = 0; side < 2; side++) {
+                players[side].cancel();
+                match.ponderHits[side] += players[side].getPonderHits();
+                match.ponderMisses[side] += players[side].getPonderMisses();
+            }
+        }
+        return match;
+    }
+
+    private void add(int move, int score) {
+        if (length == moves.length) {
+            moves = Arrays.copyOf(moves, length * 2);
+            scores = Arrays.copyOf(scores, length * 2);
+        }
+        moves[length] = move;
+        scores[length] = score;
+        length++;
+    }
+
+    /**
+     * Método que devolve a posição em que os motores começaram a jogar
+     * @return Uma cópia da posição inicial
+     */
+    public GameState getStart() {
+        return new GameState(start);
+    }
+
+    /**
+     * Método que devolve os movimentos jogados pelos motores, codificados como em GameState
+     * @return Os movimentos, em ordem
+     */
+    public int[] getMoves() {
+        return Arrays.copyOf(moves, length);
+    }
+
+    /**
+     * Método que devolve a avaliação que a busca deu a cada movimento jogado
+     * @return As avaliações, do ponto de vista de quem fez cada movimento, na ordem dos movimentos
+     */
+    public int[] getScores() {
+        return Arrays.copyOf(scores, length);
+    }
+
+    /**
+     * Método que devolve o registro da partida, a partir da posição em que os motores começaram a jogar
+     * @return O registro
+     */
+    public GameRecord getRecord() {
+        return new GameRecord(start, getMoves());
+    }
+
+    /**
+     * Método que devolve quantas vezes um motor previu corretamente a resposta do adversário nesta partida
+     * @param side GameState.RED ou GameState.BLUE
+     * @return O número de acertos; zero em partidas sem relógio
+     */
+    public long getPonderHits(int side) {
+        return ponderHits[side];
+    }
+
+    /**
+     * Método que devolve quantas vezes um motor errou a previsão da resposta do adversário nesta partida
+     * @param side GameState.RED ou GameState.BLUE
+     * @return O número de erros; zero em partidas sem relógio
+     */
+    public long getPonderMisses(int side) {
+        return ponderMisses[side];
+    }
+
+    /**
+     * Método que devolve o vencedor
+     * @return GameState.RED, GameState.BLUE ou DRAW
+     */
+    public int getWinner() {
+        return winner;
+    }
+}
@@ -0,0 +1,134 @@
+/**
+ * Classe que acumula vitórias, empates e derrotas de uma configuração contra outra e calcula a diferença
+ * de Elo, o seu intervalo de confiança de 95% e o teste sequencial (SPRT) entre duas hipóteses de Elo.
+ * O SPRT usa a aproximação normal da razão de verossimilhança sobre a pontuação média por partida.
+ */
+public class MatchStats {
+
+    public static final int CONTINUE = 0;
+    public static final int ACCEPT_H0 = -1;
+    public static final int ACCEPT_H1 = 1;
+
+    private long wins;
+    private long draws;
+    private long losses;
+
+    /**
+     * Método que registra o resultado de uma partida do ponto de vista da primeira configuração
+     * @param score 1 para vitória, 0.5 para empate e 0 para derrota
+     */
+    public void add(double score) {
+        if (score > 0.5) {
+            wins++;
+        } else if (score < 0.5) {
+            losses++;
+        } else {
+            draws++;
+        }
+    }
+
+    public long getWins() {
+        return wins;
+    }
+
+    public long getDraws() {
+        return draws;
+    }
+
+    public long getLosses() {
+        return losses;
+    }
+
+    public long getGames() {
+        return wins + draws + losses;
+    }
+
+    /**
+     * Método que devolve a pontuação média por partida
+     * @return Valor entre 0 e 1
+     */
+    public double getScore() {
+        long games = getGames();
+        return games == 0 ? 0.5 : (wins + draws * 0.5) / games;
+    }
+
+    /**
+     * Método que calcula a diferença de Elo correspondente à pontuação
+     * @return A diferença de Elo estimada
+     */
+    public double getElo() {
+        return toElo(getScore());
+    }
+
+    /**
+     * Método que calcula a margem do intervalo de confiança de 95% da diferença de Elo
+     * @return A margem, de modo que o intervalo é getElo() mais ou menos este valor
+     */
+    public double getEloError() {
+        long games = getGames();
+        if (games < 2) {
+            return Double.POSITIVE_INFINITY;
+        }
+        double score = getScore();
+        double margin = 1.96 * Math.sqrt(variance() / games);
+        return (toElo(score + margin) - toElo(score - margin)) / 2;
+    }
+
+    /**
+     * Método que calcula o logaritmo da razão de verossimilhança entre H1 (diferença elo1) e H0 (diferença elo0)
+     * @param elo0 Diferença de Elo da hipótese nula
+     * @param elo1 Diferença de Elo da hipótese alternativa
+     * @return O LLR
+     */
+    public double getLlr(double elo0, double elo1) {
+        double variance = variance();
+        if (variance <= 0) {
+            return 0;
+        }
+        double s0 = expectedScore(elo0);
+        double s1 = expectedScore(elo1);
+        return getGames() * (s1 - s0) * (2 * getScore() - s0 - s1) / (2 * variance);
+    }
+
+    /**
+     * Método que aplica a regra de parada do SPRT
+     * @param elo0 Diferença de Elo da hipótese nula
+     * @param elo1 Diferença de Elo da hipótese alternativa
+     * @param alpha Probabilidade de aceitar H1 sendo H0 verdadeira
+     * @param beta Probabilidade de aceitar H0 sendo H1 verdadeira
+     * @return ACCEPT_H1, ACCEPT_H0 ou CONTINUE
+     */
+    public int sprt(double elo0, double elo1, double alpha, double beta) {
+        double llr = getLlr(elo0, elo1);
+        if (llr >= Math.log((1 - beta) / alpha)) {
+            return ACCEPT_H1;
+        }
+        if (llr <= Math.log(beta / (1 - alpha))) {
+            return ACCEPT_H0;
+        }
+        return CONTINUE;
+    }
+
+    private double variance() {
+        long games = getGames();
+        if (games == 0) {
+            return 0;
+        }
+        double score = getScore();
+        return (wins * Math.pow(1 - score, 2) + draws * Math.pow(0.5 - score, 2) + losses * Math.pow(score, 2)) / games;
+    }
+
+    private static double expectedScore(double elo) {
+        return 1 / (1 + Math.pow(10, -elo / 400));
+    }
+
+    private static double toElo(double score) {
+        double clamped = Math.min(Math.max(score, 1e-6), 1 - 1e-6);
+        return -400 * Math.log10(1 / clamped - 1);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%+.1f +/- %.1f Elo (%d-%d-%d)", getElo(), getEloError(), wins, losses, draws);
+    }
+}
@@ -0,0 +1,125 @@
+import java.util.Arrays;
+
+/**
+ * Classe que guarda o hash de cada posição pela qual a partida passou, na ordem, e quantas vezes
+ * cada posição apareceu. Como as cartas circulam entre os jogadores e a mesa, a mesma posição pode
+ * se repetir indefinidamente; com a contagem, saber se a posição atual já apareceu custa O(1) por movimento.
+ */
+public class MoveHistory {
+
+    private long[] sequence = new long[64];
+    private int length;
+
+    private long[] keys = new long[128];
+    private int[] counts = new int[128];
+    private boolean[] occupied = new boolean[128];
+    private int used;
+
+    public MoveHistory() {
+    }
+
+    /**
+     * Construtor de cópia
+     * @param other O histórico a ser copiado
+     */
+    public MoveHistory(MoveHistory other) {
+        sequence = other.sequence.clone();
+        length = other.length;
+        keys = other.keys.clone();
+        counts = other.counts.clone();
+        occupied = other.occupied.clone();
+        used = other.used;
+    }
+
+    /**
+     * Método que registra uma nova posição no fim do histórico
+     * @param hash O hash da posição
+     * @return Quantas vezes a posição apareceu, contando esta
+     */
+    public int push(long hash) {
+        if (length == sequence.length) {
+            sequence = Arrays.copyOf(sequence, length * 2);
+        }
+        sequence[length++] = hash;
+        if ((used + 1) * 2 > keys.length) {
+            rehash();
+        }
+        int index = slot(hash);
+        if (!occupied[index]) {
+            occupied[index] = true;
+            keys[index] = hash;
+            used++;
+        }
+        return ++counts[index];
+    }
+
+    /**
+     * Método que remove a última posição registrada
+     */
+    public void pop() {
+        long hash = sequence[--length];
+        counts[slot(hash)]--;
+    }
+
+    /**
+     * Método que devolve quantas vezes uma posição aparece no histórico
+     * @param hash O hash da posição
+     * @return O número de ocorrências
+     */
+    public int count(long hash) {
+        return counts[slot(hash)];
+    }
+
+    /**
+     * Método que devolve o número de posições registradas
+     * @return O tamanho do histórico
+     */
+    public int size() {
+        return length;
+    }
+
+    /**
+     * Método que devolve o hash de uma posição do histórico
+     * @param index A posição no histórico, a partir de 0
+     * @return O hash registrado
+     */
+    public long get(int index) {
+        return sequence[index];
+    }
+
+    // Posições que deixam de aparecer continuam ocupando a sua casa com contagem 0, então a sondagem
+    // linear nunca encontra buracos no meio de uma sequência; elas só são descartadas no rehash
+    private int slot(long hash) {
+        int mask = keys.length - 1;
+        int index = (int) (hash ^ (hash >>> 32)) & mask;
+        while (occupied[index] && keys[index] != hash) {
+            index = (index + 1) & mask;
+        }
+        return index;
+    }
+
+    private void rehash() {
+        int live = 0;
+        for (int count : counts) {
+            if (count > 0) {
+                live++;
+            }
+        }
+        int size = Math.max(128, Integer.highestOneBit(live * 4 + 3) * 2);
+        long[] oldKeys = keys;
+        int[] oldCounts = counts;
+        keys = new long[size];
+        counts = new int[size];
+        occupied = new boolean[size];
+        used = 0;
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldCounts[i] > 0) {
+                int index = slot(oldKeys[i]);
+                keys[index] = oldKeys[i];
+                counts[index] = oldCounts[i];
+                occupied[index] = true;
+                used++;
+            }
+        }
+    }
+}
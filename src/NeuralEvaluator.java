@@ -0,0 +1,160 @@
+/**
+ * Avaliação por rede neural com acumulador incremental (no estilo NNUE). O acumulador guarda a saída
+ * da primeira camada antes da ativação; como a entrada é binária e cada movimento liga e desliga poucas
+ * entradas (a peça que se move, a capturada e as duas cartas trocadas), ele é atualizado somando e
+ * subtraindo faixas contínuas de pesos em vez de ser recalculado.
+ * <p>
+ * Há um acumulador por altura da busca, alocados uma única vez, então avaliar não cria objetos. Os laços
+ * internos somam um vetor float contínuo a outro, elemento a elemento, sem somas acumuladas entre
+ * iterações, o que permite ao compilador JIT usar instruções SIMD. Na segunda camada, cada ativação nula
+ * da primeira é pulada.
+ */
+public class NeuralEvaluator implements PositionEvaluator {
+
+    private static final int TABLE_LOCATION = 2;
+
+    private final NeuralNetwork network;
+    private final float[][] accumulators;
+    private final long[] hashes;
+    private final float[] activated;
+    private final float[] hidden;
+    private int top;
+
+    /**
+     * Construtor que define a rede usada
+     * @param network A rede
+     */
+    public NeuralEvaluator(NeuralNetwork network) {
+        this.network = network;
+        this.accumulators = new float[Engine.MAX_PLY + 1][network.getHidden1()];
+        this.hashes = new long[Engine.MAX_PLY + 1];
+        this.activated = new float[network.getHidden1()];
+        this.hidden = new float[network.getHidden2()];
+    }
+
+    @Override
+    public void reset(GameState state) {
+        top = 0;
+        refresh(state);
+    }
+
+    @Override
+    public void moveMade(GameState state) {
+        top++;
+        MoveHistory history = state.getHistory();
+        if (history.size() < 2 || hashes[top - 1] != history.get(history.size() - 2)) {
+            refresh(state);
+            return;
+        }
+
+        float[] acc = accumulators[top];
+        System.arraycopy(accumulators[top - 1], 0, acc, 0, acc.length);
+
+        int move = state.getLastMove();
+        int side = 1 - state.getSideToMove();
+        int opponent = state.getSideToMove();
+        int from = GameState.moveFrom(move);
+        int to = GameState.moveTo(move);
+        boolean master = state.getMaster(side) == to;
+
+        subtract(acc, network.pieceInput(side, master, from));
+        add(acc, network.pieceInput(side, master, to));
+        int captured = state.getLastCapture();
+        if (captured != 0) {
+            subtract(acc, network.pieceInput(opponent, captured == 2, to));
+        }
+
+        Card used = state.getCard(GameState.TABLE);
+        Card received = state.getCard(side * 2 + GameState.moveHand(move));
+        subtract(acc, network.cardInput(used, side));
+        add(acc, network.cardInput(used, TABLE_LOCATION));
+        subtract(acc, network.cardInput(received, TABLE_LOCATION));
+        add(acc, network.cardInput(received, side));
+
+        int blueToMove = network.blueToMoveInput();
+        if (opponent == GameState.BLUE) {
+            add(acc, blueToMove);
+        } else {
+            subtract(acc, blueToMove);
+        }
+        hashes[top] = state.getHash();
+    }
+
+    @Override
+    public void moveUndone(GameState state) {
+        if (top > 0) {
+            top--;
+        }
+    }
+
+    @Override
+    public int evaluate(GameState state) {
+        if (hashes[top] != state.getHash()) {
+            refresh(state);
+        }
+
+        float[] acc = accumulators[top];
+        int h1 = acc.length;
+        for (int i = 0; i < h1; i++) {
+            activated[i] = Math.min(Math.max(acc[i], 0f), 1f);
+        }
+
+        float[] weights = network.hiddenWeightsByInput;
+        int h2 = hidden.length;
+        System.arraycopy(network.hiddenBias, 0, hidden, 0, h2);
+        for (int i = 0; i < h1; i++) {
+            float value = activated[i];
+            if (value == 0f) {
+                continue;
+            }
+            int offset = i * h2;
+            for (int j = 0; j < h2; j++) {
+                hidden[j] += weights[offset + j] * value;
+            }
+        }
+        float output = network.outputBias;
+        for (int j = 0; j < h2; j++) {
+            hidden[j] = Math.min(Math.max(hidden[j], 0f), 1f);
+            output += network.outputWeights[j] * hidden[j];
+        }
+
+        int score = Math.round(output * network.outputScale);
+        return state.getSideToMove() == GameState.RED ? score : -score;
+    }
+
+    private void refresh(GameState state) {
+        float[] acc = accumulators[top];
+        System.arraycopy(network.inputBias, 0, acc, 0, acc.length);
+        for (int color = 0; color < 2; color++) {
+            int master = state.getMaster(color);
+            for (int rest = state.getPieces(color); rest != 0; rest &= rest - 1) {
+                int square = Integer.numberOfTrailingZeros(rest);
+                add(acc, network.pieceInput(color, square == master, square));
+            }
+        }
+        for (int slot = 0; slot < 5; slot++) {
+            int location = slot == GameState.TABLE ? TABLE_LOCATION : slot / 2;
+            add(acc, network.cardInput(state.getCard(slot), location));
+        }
+        if (state.getSideToMove() == GameState.BLUE) {
+            add(acc, network.blueToMoveInput());
+        }
+        hashes[top] = state.getHash();
+    }
+
+    private void add(float[] acc, int input) {
+        float[] weights = network.inputWeights;
+        int offset = input * acc.length;
+        for (int i = 0; i < acc.length; i++) {
+            acc[i] += weights[offset + i];
+        }
+    }
+
+    private void subtract(float[] acc, int input) {
+        float[] weights = network.inputWeights;
+        int offset = input * acc.length;
+        for (int i = 0; i < acc.length; i++) {
+            acc[i] -= weights[offset + i];
+        }
+    }
+}
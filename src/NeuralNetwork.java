@@ -0,0 +1,227 @@
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+/**
+ * Classe que guarda os pesos de uma rede neural pequena (entrada, duas camadas ocultas e uma saída) usada
+ * como avaliação alternativa por NeuralEvaluator. A entrada é esparsa e binária:
+ * <ul>
+ * <li>uma entrada para cada combinação de cor, tipo de peça e casa (4 x 25);</li>
+ * <li>uma entrada para cada carta em cada lugar (mão do vermelho, mão do azul ou mesa);</li>
+ * <li>uma entrada ativa quando é a vez do azul.</li>
+ * </ul>
+ * Os pesos da primeira camada ficam organizados por entrada, para que ligar ou desligar uma entrada seja
+ * somar ou subtrair uma faixa contínua do vetor, como nos acumuladores NNUE. Os da segunda camada também
+ * são guardados organizados por neurônio da primeira camada, para que NeuralEvaluator some cada ativação
+ * a todos os neurônios da segunda camada com um laço sobre um vetor contínuo.
+ */
+public class NeuralNetwork {
+
+    private static final int MAGIC = 0x4F4E4E31; // "ONN1"
+
+    /**
+     * Tamanho máximo de cada camada oculta aceito por load
+     */
+    public static final int MAX_HIDDEN = 4096;
+
+    private final String[] cards;
+    private final Map<String, Integer> cardIndex = new HashMap<>();
+    private final int inputs;
+    private final int hidden1;
+    private final int hidden2;
+
+    final float[] inputWeights;
+    final float[] inputBias;
+    final float[] hiddenWeights;
+    final float[] hiddenWeightsByInput;
+    final float[] hiddenBias;
+    final float[] outputWeights;
+    final float outputBias;
+    final float outputScale;
+
+    private NeuralNetwork(String[] cards, int hidden1, int hidden2, float[] inputWeights, float[] inputBias,
+            float[] hiddenWeights, float[] hiddenBias, float[] outputWeights, float outputBias, float outputScale) {
+        this.cards = cards;
+        for (int i = 0; i < cards.length; i++) {
+            cardIndex.put(cards[i], i);
+        }
+        this.inputs = 100 + cards.length * 3 + 1;
+        this.hidden1 = hidden1;
+        this.hidden2 = hidden2;
+        this.inputWeights = inputWeights;
+        this.inputBias = inputBias;
+        this.hiddenWeights = hiddenWeights;
+        this.hiddenWeightsByInput = new float[hiddenWeights.length];
+        for (int j = 0; j < hidden2; j++) {
+            for (int i = 0; i < hidden1; i++) {
+                hiddenWeightsByInput[i * hidden2 + j] = hiddenWeights[j * hidden1 + i];
+            }
+        }
+        this.hiddenBias = hiddenBias;
+        this.outputWeights = outputWeights;
+        this.outputBias = outputBias;
+        this.outputScale = outputScale;
+    }
+
+    /**
+     * Método que cria uma rede com pesos aleatórios pequenos para as cartas de Card.allCards,
+     * usada como ponto de partida de um treino
+     * @param seed Semente dos pesos
+     * @param hidden1 Tamanho da primeira camada oculta (o acumulador)
+     * @param hidden2 Tamanho da segunda camada oculta
+     * @return A rede criada
+     */
+    public static NeuralNetwork random(long seed, int hidden1, int hidden2) {
+        Card[] all = Card.allCards();
+        String[] names = new String[all.length];
+        for (int i = 0; i < all.length; i++) {
+            names[i] = all[i].getName();
+        }
+        SplittableRandom random = new SplittableRandom(seed);
+        int inputs = 100 + names.length * 3 + 1;
+        return new NeuralNetwork(names, hidden1, hidden2,
+            randomArray(random, inputs * hidden1, 0.1f), new float[hidden1],
+            randomArray(random, hidden2 * hidden1, 0.3f), new float[hidden2],
+            randomArray(random, hidden2, 0.5f), 0, 100);
+    }
+
+    private static float[] randomArray(SplittableRandom random, int size, float range) {
+        float[] values = new float[size];
+        for (int i = 0; i < size; i++) {
+            values[i] = (float) (random.nextDouble() * 2 - 1) * range;
+        }
+        return values;
+    }
+
+    /**
+     * Método que carrega uma rede gravada por save
+     * @param path O arquivo da rede
+     * @return A rede lida
+     * @exception IOException Caso o arquivo não possa ser lido ou não esteja no formato esperado
+     */
+    public static NeuralNetwork load(Path path) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(path)))) {
+            if (in.readInt() != MAGIC) {
+                throw new IOException("Arquivo de rede inválido: " + path);
+            }
+            int count = in.readInt();
+            if (count < 5 || count > CardRegistry.MAX_CARDS) {
+                throw new IOException("Número de cartas inválido na rede " + path + ": " + count);
+            }
+            String[] names = new String[count];
+            for (int i = 0; i < names.length; i++) {
+                names[i] = in.readUTF();
+            }
+            int hidden1 = in.readInt();
+            int hidden2 = in.readInt();
+            if (hidden1 <= 0 || hidden1 > MAX_HIDDEN || hidden2 <= 0 || hidden2 > MAX_HIDDEN) {
+                throw new IOException("Tamanho de camada inválido na rede " + path + ": " + hidden1 + " e " + hidden2);
+            }
+            int inputs = 100 + names.length * 3 + 1;
+            return new NeuralNetwork(names, hidden1, hidden2,
+                readArray(in, inputs * hidden1), readArray(in, hidden1),
+                readArray(in, hidden2 * hidden1), readArray(in, hidden2),
+                readArray(in, hidden2), in.readFloat(), in.readFloat());
+        }
+    }
+
+    /**
+     * Método que grava a rede em um arquivo binário que pode ser lido por load
+     * @param path O arquivo de destino
+     * @exception IOException Caso o arquivo não possa ser escrito
+     */
+    public void save(Path path) throws IOException {
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(path)))) {
+            out.writeInt(MAGIC);
+            out.writeInt(cards.length);
+            for (String name : cards) {
+                out.writeUTF(name);
+            }
+            out.writeInt(hidden1);
+            out.writeInt(hidden2);
+            writeArray(out, inputWeights);
+            writeArray(out, inputBias);
+            writeArray(out, hiddenWeights);
+            writeArray(out, hiddenBias);
+            writeArray(out, outputWeights);
+            out.writeFloat(outputBias);
+            out.writeFloat(outputScale);
+        }
+    }
+
+    private static float[] readArray(DataInputStream in, int size) throws IOException {
+        float[] values = new float[size];
+        for (int i = 0; i < size; i++) {
+            values[i] = in.readFloat();
+        }
+        return values;
+    }
+
+    private static void writeArray(DataOutputStream out, float[] values) throws IOException {
+        for (float value : values) {
+            out.writeFloat(value);
+        }
+    }
+
+    /**
+     * Método que cria uma avaliação que usa esta rede. Cada motor precisa da sua própria avaliação,
+     * mas todas compartilham os pesos
+     * @return Uma nova avaliação
+     */
+    public NeuralEvaluator createEvaluator() {
+        return new NeuralEvaluator(this);
+    }
+
+    public int getInputs() {
+        return inputs;
+    }
+
+    public int getHidden1() {
+        return hidden1;
+    }
+
+    public int getHidden2() {
+        return hidden2;
+    }
+
+    /**
+     * Método que devolve o índice da entrada de uma peça
+     * @param color GameState.RED ou GameState.BLUE
+     * @param master Se a peça é o mestre
+     * @param square A casa da peça
+     * @return O índice da entrada
+     */
+    int pieceInput(int color, boolean master, int square) {
+        return (color * 2 + (master ? 1 : 0)) * 25 + square;
+    }
+
+    /**
+     * Método que devolve o índice da entrada de uma carta em um lugar
+     * @param card A carta
+     * @param location GameState.RED, GameState.BLUE ou 2 para a mesa
+     * @return O índice da entrada
+     * @exception IllegalArgumentException Caso a rede não conheça a carta
+     */
+    int cardInput(Card card, int location) {
+        Integer index = cardIndex.get(card.getName());
+        if (index == null) {
+            throw new IllegalArgumentException("A rede não conhece a carta " + card.getName());
+        }
+        return 100 + index * 3 + location;
+    }
+
+    /**
+     * Método que devolve o índice da entrada ativa quando é a vez do azul
+     * @return O índice da entrada
+     */
+    int blueToMoveInput() {
+        return inputs - 1;
+    }
+}
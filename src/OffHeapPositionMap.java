@@ -0,0 +1,184 @@
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Tabela de posições fora do heap do Java, para caches de muitos gigabytes (tabelas de transposição, análises,
+ * tabelas de finais) que não devem pesar na coleta de lixo. A chave é a posição compactada por
+ * GameState.packBoard e packCards e o valor é um long, cujo significado fica a cargo de quem usa a tabela.
+ * <p>
+ * A memória vem de ByteBuffers diretos de até 768 MB cada, então a tabela pode passar de 2 GB. A capacidade
+ * é fixa e as colisões são resolvidas por sondagem linear; não há remoção. Cada entrada ocupa 24 bytes:
+ * o tabuleiro, as cartas com dois bits de estado e o valor.
+ * <p>
+ * Várias threads podem ler e gravar ao mesmo tempo sem trava: uma casa vazia é reservada com compareAndSet
+ * no campo das cartas, preenchida e só então marcada como pronta. Como a chave de uma casa nunca muda depois
+ * disso, quem encontra uma casa pronta com a sua chave pode ler ou trocar o valor diretamente.
+ */
+public class OffHeapPositionMap {
+
+    /**
+     * Número máximo de casas visitadas a partir da casa inicial de uma chave
+     */
+    public static final int MAX_PROBES = 64;
+
+    private static final VarHandle LONGS = MethodHandles.byteBufferViewVarHandle(long[].class, ByteOrder.nativeOrder());
+
+    private static final int ENTRY_BYTES = 24;
+    private static final int SEGMENT_SHIFT = 25;
+    private static final long SEGMENT_MASK = (1L << SEGMENT_SHIFT) - 1;
+
+    private static final long READY = 1L << 63;
+    private static final long BUSY = 1L << 62;
+
+    private final ByteBuffer[] segments;
+    private final long mask;
+    private final LongAdder size = new LongAdder();
+
+    /**
+     * Construtor que reserva toda a memória da tabela
+     * @param capacity Número de entradas; arredondado para cima para uma potência de 2
+     */
+    public OffHeapPositionMap(long capacity) {
+        long entries = Long.highestOneBit(Math.max(1024, capacity) - 1) << 1;
+        mask = entries - 1;
+        int count = (int) Math.max(1, entries >>> SEGMENT_SHIFT);
+        long perSegment = Math.min(entries, 1L << SEGMENT_SHIFT);
+        segments = new ByteBuffer[count];
+        for (int i = 0; i < count; i++) {
+            segments[i] = ByteBuffer.allocateDirect((int) (perSegment * ENTRY_BYTES) + 8).alignedSlice(8)
+                .order(ByteOrder.nativeOrder());
+        }
+    }
+
+    /**
+     * Método que cria uma tabela que ocupa aproximadamente a memória pedida
+     * @param megabytes A memória, fora do heap
+     * @return A tabela
+     */
+    public static OffHeapPositionMap ofMegabytes(long megabytes) {
+        return new OffHeapPositionMap(Long.highestOneBit(megabytes * 1024 * 1024 / ENTRY_BYTES));
+    }
+
+    /**
+     * Método que devolve o valor de uma posição
+     * @param board A posição compactada por GameState.packBoard
+     * @param cards As cartas compactadas por GameState.packCards
+     * @param absent O valor devolvido quando a posição não está na tabela
+     * @return O valor guardado, ou absent
+     */
+    public long get(long board, long cards, long absent) {
+        long tag = READY | cards;
+        long index = index(board, cards);
+        for (int probe = 0; probe < MAX_PROBES; probe++) {
+            ByteBuffer segment = segments[(int) (index >>> SEGMENT_SHIFT)];
+            int offset = (int) (index & SEGMENT_MASK) * ENTRY_BYTES;
+            long state = awaitReady(segment, offset);
+            if (state == 0) {
+                return absent;
+            }
+            if (state == tag && (long) LONGS.get(segment, offset) == board) {
+                return (long) LONGS.getVolatile(segment, offset + 16);
+            }
+            index = (index + 1) & mask;
+        }
+        return absent;
+    }
+
+    /**
+     * Método que grava o valor de uma posição, substituindo o anterior se ela já estiver na tabela
+     * @param board A posição compactada por GameState.packBoard
+     * @param cards As cartas compactadas por GameState.packCards
+     * @param value O valor
+     * @return false se a posição é nova e não há casa livre perto da sua casa inicial
+     */
+    public boolean put(long board, long cards, long value) {
+        long tag = READY | cards;
+        long index = index(board, cards);
+        for (int probe = 0; probe < MAX_PROBES; probe++) {
+            ByteBuffer segment = segments[(int) (index >>> SEGMENT_SHIFT)];
+            int offset = (int) (index & SEGMENT_MASK) * ENTRY_BYTES;
+            long state = awaitReady(segment, offset);
+            if (state == 0) {
+                if (LONGS.compareAndSet(segment, offset + 8, 0L, BUSY | cards)) {
+                    LONGS.set(segment, offset, board);
+                    LONGS.set(segment, offset + 16, value);
+                    LONGS.setRelease(segment, offset + 8, tag);
+                    size.increment();
+                    return true;
+                }
+                state = awaitReady(segment, offset);
+            }
+            if (state == tag && (long) LONGS.get(segment, offset) == board) {
+                LONGS.setVolatile(segment, offset + 16, value);
+                return true;
+            }
+            index = (index + 1) & mask;
+        }
+        return false;
+    }
+
+    /**
+     * Método que devolve o valor de uma posição
+     * @param state A posição
+     * @param absent O valor devolvido quando a posição não está na tabela
+     * @return O valor guardado, ou absent
+     */
+    public long get(GameState state, long absent) {
+        return get(state.packBoard(), state.packCards(), absent);
+    }
+
+    /**
+     * Método que grava o valor de uma posição
+     * @param state A posição
+     * @param value O valor
+     * @return false se a posição é nova e a tabela não tem casa livre para ela
+     */
+    public boolean put(GameState state, long value) {
+        return put(state.packBoard(), state.packCards(), value);
+    }
+
+    /**
+     * Método que esvazia a tabela. Não deve ser chamado enquanto outras threads usam a tabela
+     */
+    public void clear() {
+        for (ByteBuffer segment : segments) {
+            for (int offset = 0; offset + 8 <= segment.capacity(); offset += 8) {
+                segment.putLong(offset, 0);
+            }
+        }
+        size.reset();
+    }
+
+    /**
+     * Método que devolve o número de posições gravadas
+     * @return O número de posições
+     */
+    public long size() {
+        return size.sum();
+    }
+
+    public long capacity() {
+        return mask + 1;
+    }
+
+    private long index(long board, long cards) {
+        long h = board * 0x9E3779B97F4A7C15L ^ cards * 0xC2B2AE3D27D4EB4FL;
+        return (h ^ (h >>> 29)) & mask;
+    }
+
+    /**
+     * Método que lê o estado de uma casa, esperando caso outra thread esteja preenchendo a casa
+     * @return 0 para uma casa vazia, ou READY junto com as cartas da posição
+     */
+    private static long awaitReady(ByteBuffer segment, int offset) {
+        long state = (long) LONGS.getAcquire(segment, offset + 8);
+        while ((state & BUSY) != 0) {
+            Thread.onSpinWait();
+            state = (long) LONGS.getAcquire(segment, offset + 8);
+        }
+        return state;
+    }
+}
@@ -51,11 +51,12 @@ public class Player {
     }
 
     /**
-     * Método que devolve as cartas da mão do jogador
-     * @return Booleano true para caso seja um mestre e false caso contrário
+     * Método que devolve as cartas da mão do jogador. Durante uma partida com várias threads, a mão pode mudar
+     * a qualquer momento; prefira GameImpl.getCards(Color)
+     * @return Um vetor novo com as cartas da mão do jogador
      */
     public Card[] getCards() {
-        return cards;
+        return cards.clone();
     }
 
     public void addCard(Card card){
@@ -0,0 +1,146 @@
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import enums.Color;
+
+/**
+ * Classe que faz o motor pensar durante o tempo do adversário. Depois de jogar, o motor prevê a resposta
+ * do adversário e começa a buscar a posição resultante em outra thread. Quando o adversário joga:
+ * <ul>
+ * <li>se a previsão acertou, a busca em andamento continua, agora limitada pelo relógio;</li>
+ * <li>se errou, ela é interrompida e uma nova busca começa, ainda aproveitando a tabela de transposição.</li>
+ * </ul>
+ * Como as cartas dos dois jogadores são conhecidas, o adversário tem poucos movimentos e a previsão acerta com frequência.
+ */
+public class Ponderer {
+
+    private final Engine engine;
+    private final ExecutorService executor;
+
+    private Future<SearchResult> pending;
+    private int predictedReply = GameState.NO_MOVE;
+    private long ponderHits;
+    private long ponderMisses;
+
+    /**
+     * Construtor que define o motor usado, que não deve ser usado diretamente por outra thread enquanto este objeto existir
+     * @param engine O motor
+     */
+    public Ponderer(Engine engine) {
+        this.engine = engine;
+        this.executor = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "ponder");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Método que escolhe o movimento de quem joga. Se havia uma busca em andamento para a posição atual
+     * (previsão correta), ela é aproveitada
+     * @param state A posição atual
+     * @param lastMove O movimento do adversário que levou à posição atual, ou GameState.NO_MOVE no primeiro movimento
+     * @param clock O relógio da partida
+     * @return O resultado da busca
+     */
+    public SearchResult think(GameState state, int lastMove, Clock clock) {
+        Future<SearchResult> ponder = pending;
+        pending = null;
+        if (ponder != null) {
+            if (lastMove == predictedReply) {
+                ponderHits++;
+                engine.ponderHit(clock, colorToMove(state));
+                SearchResult result = await(ponder);
+                if (result.getBestMove() != GameState.NO_MOVE) {
+                    return result;
+                }
+            } else {
+                ponderMisses++;
+                engine.stop();
+                await(ponder);
+            }
+        }
+        return engine.search(new GameState(state), clock);
+    }
+
+    /**
+     * Método que começa a pensar durante o tempo do adversário, logo depois de jogar
+     * @param state A posição antes do movimento do motor
+     * @param move O movimento que o motor acabou de escolher
+     */
+    public void startPondering(GameState state, int move) {
+        cancel();
+        GameState copy = new GameState(state);
+        int reply = engine.predictReply(copy, move);
+        if (reply == GameState.NO_MOVE) {
+            return;
+        }
+        copy.makeMove(move);
+        copy.makeMove(reply);
+        if (copy.winner() >= 0) {
+            return;
+        }
+        predictedReply = reply;
+        pending = engine.ponder(copy, executor);
+    }
+
+    /**
+     * Método que interrompe a busca em andamento, se houver, e espera ela terminar
+     */
+    public void cancel() {
+        if (pending != null) {
+            engine.stop();
+            await(pending);
+            pending = null;
+        }
+    }
+
+    /**
+     * Método que prepara o motor para uma nova partida: interrompe a busca em andamento e apaga a tabela de transposição
+     */
+    public void newGame() {
+        cancel();
+        engine.clearTable();
+    }
+
+    /**
+     * Método que encerra a thread de busca
+     */
+    public void shutdown() {
+        cancel();
+        executor.shutdown();
+    }
+
+    /**
+     * Método que devolve quantas vezes a previsão da resposta do adversário acertou
+     * @return O número de acertos
+     */
+    public long getPonderHits() {
+        return ponderHits;
+    }
+
+    /**
+     * Método que devolve quantas vezes a previsão da resposta do adversário errou
+     * @return O número de erros
+     */
+    public long getPonderMisses() {
+        return ponderMisses;
+    }
+
+    private static Color colorToMove(GameState state) {
+        return state.getSideToMove() == GameState.RED ? Color.RED : Color.BLUE;
+    }
+
+    private static SearchResult await(Future<SearchResult> future) {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Busca interrompida", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Falha na busca", e.getCause());
+        }
+    }
+}
@@ -0,0 +1,35 @@
+/**
+ * Interface das avaliações usadas pelo motor. Além de avaliar, uma implementação pode acompanhar os
+ * movimentos da busca para atualizar o seu estado de forma incremental: o motor chama reset no começo
+ * de cada busca e moveMade / moveUndone logo depois de cada makeMove / undoMove.
+ */
+public interface PositionEvaluator {
+
+    /**
+     * Método que avalia a posição do ponto de vista de quem joga
+     * @param state A posição
+     * @return A avaliação em centésimos de aprendiz; positiva se quem joga estiver melhor
+     */
+    int evaluate(GameState state);
+
+    /**
+     * Método chamado no começo de cada busca, com a posição da raiz
+     * @param state A posição da raiz
+     */
+    default void reset(GameState state) {
+    }
+
+    /**
+     * Método chamado logo depois de um movimento ser aplicado na posição
+     * @param state A posição depois do movimento
+     */
+    default void moveMade(GameState state) {
+    }
+
+    /**
+     * Método chamado logo depois de um movimento ser desfeito na posição
+     * @param state A posição depois de desfazer o movimento
+     */
+    default void moveUndone(GameState state) {
+    }
+}
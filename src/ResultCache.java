@@ -0,0 +1,138 @@
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Function;
+
+/**
+ * Cache de resultados de cálculos caros, como buscas do motor, compartilhado entre threads. Guarda no máximo
+ * um número fixo de resultados, descartando o usado há mais tempo, e cada resultado expira depois de um
+ * tempo; um resultado expirado só é removido quando é pedido de novo ou quando sai pelo limite de tamanho.
+ * <p>
+ * Pedidos simultâneos da mesma chave são unidos: a primeira thread calcula e as outras esperam o mesmo
+ * resultado em vez de repetir o cálculo.
+ * @param <K> O tipo da chave
+ * @param <V> O tipo do resultado
+ */
+public class ResultCache<K, V> {
+
+    private final long ttlMillis;
+    private final Map<K, Entry<V>> entries;
+
+    private long hits;
+    private long misses;
+    private long coalesced;
+
+    /**
+     * Construtor que define os limites do cache
+     * @param capacity Número máximo de resultados guardados
+     * @param ttlMillis Tempo, em milissegundos, que um resultado continua válido depois de calculado
+     */
+    public ResultCache(int capacity, long ttlMillis) {
+        this.ttlMillis = ttlMillis;
+        this.entries = new LinkedHashMap<K, Entry<V>>(16, 0.75f, true) {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<K, Entry<V>> eldest) {
+                return size() > capacity;
+            }
+        };
+    }
+
+    /**
+     * Método que devolve o resultado de uma chave, calculando-o se ele não estiver no cache ou tiver expirado.
+     * Se outra thread já estiver calculando a mesma chave, espera por ela
+     * @param key A chave
+     * @param compute A função que calcula o resultado; não deve devolver null
+     * @return O resultado
+     * @exception RuntimeException A mesma exceção lançada por compute; nesse caso nada é guardado
+     */
+    public V get(K key, Function<K, V> compute) {
+        Entry<V> entry;
+        boolean owner = false;
+        synchronized (this) {
+            entry = entries.get(key);
+            if (entry != null && entry.result.isDone() && entry.expires <= System.currentTimeMillis()) {
+                entries.remove(key);
+                entry = null;
+            }
+            if (entry == null) {
+                entry = new Entry<>();
+                entries.put(key, entry);
+                owner = true;
+                misses++;
+            } else if (entry.result.isDone()) {
+                hits++;
+            } else {
+                coalesced++;
+            }
+        }
+
+        if (owner) {
+            try {
+                V value = compute.apply(key);
+                synchronized (this) {
+                    entry.expires = System.currentTimeMillis() + ttlMillis;
+                }
+                entry.result.complete(value);
+                return value;
+            } catch (RuntimeException | Error e) {
+                synchronized (this) {
+                    entries.remove(key, entry);
+                }
+                entry.result.completeExceptionally(e);
+                throw e;
+            }
+        }
+        try {
+            return entry.result.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Método que remove todos os resultados
+     */
+    public synchronized void clear() {
+        entries.clear();
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    /**
+     * Método que devolve quantos pedidos foram atendidos com um resultado já calculado
+     * @return O número de acertos
+     */
+    public synchronized long getHits() {
+        return hits;
+    }
+
+    /**
+     * Método que devolve quantos pedidos precisaram calcular o resultado
+     * @return O número de cálculos
+     */
+    public synchronized long getMisses() {
+        return misses;
+    }
+
+    /**
+     * Método que devolve quantos pedidos esperaram um cálculo que já estava em andamento
+     * @return O número de pedidos unidos
+     */
+    public synchronized long getCoalesced() {
+        return coalesced;
+    }
+
+    private static class Entry<V> {
+
+        final CompletableFuture<V> result = new CompletableFuture<>();
+        long expires;
+    }
+}
@@ -0,0 +1,111 @@
+/**
+ * Classe que guarda o resultado de uma busca do motor
+ */
+public class SearchResult {
+
+    private final int bestMove;
+    private final int score;
+    private final int depth;
+    private final long nodes;
+    private final long millis;
+    private final long cutoffs;
+    private final long firstMoveCutoffs;
+    private final long tableProbes;
+    private final long tableHits;
+    private final double branchingFactor;
+
+    /**
+     * Construtor que define as informações principais da busca, sem estatísticas
+     * @param bestMove O melhor movimento encontrado, codificado como em GameState, ou GameState.NO_MOVE
+     * @param score A avaliação do melhor movimento do ponto de vista de quem joga
+     * @param depth A profundidade da última iteração completa
+     * @param nodes O número de posições visitadas
+     * @param millis O tempo gasto em milissegundos
+     */
+    public SearchResult(int bestMove, int score, int depth, long nodes, long millis) {
+        this(bestMove, score, depth, nodes, millis, 0, 0, 0, 0, 0);
+    }
+
+    /**
+     * Construtor que define todas as informações da busca
+     * @param bestMove O melhor movimento encontrado, codificado como em GameState, ou GameState.NO_MOVE
+     * @param score A avaliação do melhor movimento do ponto de vista de quem joga
+     * @param depth A profundidade da última iteração completa
+     * @param nodes O número de posições visitadas
+     * @param millis O tempo gasto em milissegundos
+     * @param cutoffs O número de cortes beta
+     * @param firstMoveCutoffs O número de cortes causados pelo primeiro movimento buscado
+     * @param tableProbes O número de consultas à tabela de transposição
+     * @param tableHits O número de consultas que encontraram a posição
+     * @param branchingFactor O fator de ramificação efetivo: quantas vezes a última iteração visitou mais
+     * posições que a anterior
+     */
+    public SearchResult(int bestMove, int score, int depth, long nodes, long millis, long cutoffs,
+            long firstMoveCutoffs, long tableProbes, long tableHits, double branchingFactor) {
+        this.bestMove = bestMove;
+        this.score = score;
+        this.depth = depth;
+        this.nodes = nodes;
+        this.millis = millis;
+        this.cutoffs = cutoffs;
+        this.firstMoveCutoffs = firstMoveCutoffs;
+        this.tableProbes = tableProbes;
+        this.tableHits = tableHits;
+        this.branchingFactor = branchingFactor;
+    }
+
+    public int getBestMove() {
+        return bestMove;
+    }
+
+    public int getScore() {
+        return score;
+    }
+
+    public int getDepth() {
+        return depth;
+    }
+
+    public long getNodes() {
+        return nodes;
+    }
+
+    public long getMillis() {
+        return millis;
+    }
+
+    public long getCutoffs() {
+        return cutoffs;
+    }
+
+    /**
+     * Método que devolve a fração dos cortes causados pelo primeiro movimento buscado. Perto de 1, a ordenação
+     * dos movimentos está quase perfeita
+     * @return A fração, de 0 a 1
+     */
+    public double getFirstMoveCutoffRate() {
+        return cutoffs == 0 ? 0 : (double) firstMoveCutoffs / cutoffs;
+    }
+
+    /**
+     * Método que devolve a fração das consultas à tabela de transposição que encontraram a posição
+     * @return A fração, de 0 a 1
+     */
+    public double getTableHitRate() {
+        return tableProbes == 0 ? 0 : (double) tableHits / tableProbes;
+    }
+
+    /**
+     * Método que devolve o fator de ramificação efetivo da busca
+     * @return Quantas vezes a última iteração visitou mais posições que a anterior, ou 0 sem iterações
+     */
+    public double getBranchingFactor() {
+        return branchingFactor;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("depth %d score %d nodes %d time %dms ebf %.2f first-cut %.1f%% tt-hit %.1f%%",
+            depth, score, nodes, millis, branchingFactor, getFirstMoveCutoffRate() * 100, getTableHitRate() * 100);
+    }
+}
@@ -0,0 +1,170 @@
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Ferramenta que gera dados de treino jogando o motor contra ele mesmo, usando todos os núcleos.
+ * Cada thread joga partidas com um baralho sorteado e envia as posições de cada partida para um ShardWriter,
+ * que grava os shards em segundo plano. Cada posição é gravada com a avaliação da busca e o resultado da partida.
+ * <p>
+ * Uso: java SelfPlay diretorio partidas ["name=a,depth=4"] [--threads N] [--shard-size N]
+ * [--random-plies N] [--seed S]
+ */
+public class SelfPlay {
+
+    private final EngineConfig config;
+    private final int randomPlies;
+    private final int threads;
+    private final long seed;
+
+    /**
+     * Construtor que define a configuração e as opções da geração
+     * @param config A configuração usada pelas duas cores
+     * @param randomPlies Movimentos aleatórios no começo de cada partida
+     * @param threads Número de partidas simultâneas
+     * @param seed Semente dos baralhos e das aberturas; a mesma semente gera as mesmas partidas
+     */
+    public SelfPlay(EngineConfig config, int randomPlies, int threads, long seed) {
+        this.config = config;
+        this.randomPlies = randomPlies;
+        this.threads = threads;
+        this.seed = seed;
+    }
+
+    public static void main(String[] args) throws Exception {
+        EngineConfig config = null;
+        int threads = Runtime.getRuntime().availableProcessors();
+        int shardSize = 1 << 20;
+        int randomPlies = 4;
+        long seed = 1;
+        Path directory = null;
+        long games = -1;
+
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--threads": threads = Integer.parseInt(args[++i]); break;
+                case "--shard-size": shardSize = Integer.parseInt(args[++i]); break;
+                case "--random-plies": randomPlies = Integer.parseInt(args[++i]); break;
+                case "--seed": seed = Long.parseLong(args[++i]); break;
+                default:
+                    if (directory == null) {
+                        directory = Paths.get(args[i]);
+                    } else if (games < 0) {
+                        games = Long.parseLong(args[i]);
+                    } else {
+                        config = EngineConfig.parse(args[i]);
+                    }
+            }
+        }
+        if (directory == null || games < 0) {
+            System.out.println("Uso: java SelfPlay diretorio partidas [config] [--threads N] [--shard-size N]");
+            return;
+        }
+        if (config == null) {
+            config = EngineConfig.parse("name=selfplay,depth=4");
+        }
+
+        SelfPlay selfPlay = new SelfPlay(config, randomPlies, threads, seed);
+        ShardWriter writer = new ShardWriter(directory, shardSize, threads * 4, 22);
+        try {
+            selfPlay.run(games, writer);
+        } finally {
+            writer.close();
+        }
+        System.out.printf("%d posições gravadas, %d repetidas descartadas%n",
+            writer.getWritten(), writer.getDuplicates());
+    }
+
+    /**
+     * Método que joga as partidas e envia as posições para o gravador. Cada thread pega a próxima partida
+     * de um contador compartilhado, então a memória usada não depende do número de partidas
+     * @param games Número de partidas
+     * @param writer O gravador dos shards
+     * @exception Exception Caso uma partida ou a gravação falhe
+     */
+    public void run(long games, ShardWriter writer) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        AtomicLong next = new AtomicLong();
+        AtomicLong finished = new AtomicLong();
+        List<Future<Void>> workers = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            workers.add(executor.submit(() -> {
+                Engine engine = config.createEngine();
+                Engine[] engines = {engine, engine};
+                EngineConfig[] configs = {config, config};
+                for (long game = next.getAndIncrement(); game < games; game = next.getAndIncrement()) {
+                    SplittableRandom random = gameRandom(seed, game);
+                    Match match = Match.play(randomDeck(random), randomPlies, random.nextLong(), configs, engines);
+                    writer.submit(records(match));
+                    long done = finished.incrementAndGet();
+                    if (done % 1000 == 0) {
+                        System.out.println(done + " partidas");
+                    }
+                }
+                return null;
+            }));
+        }
+        executor.shutdown();
+        try {
+            for (Future<Void> worker : workers) {
+                worker.get();
+            }
+        } catch (ExecutionException e) {
+            executor.shutdownNow();
+            throw e.getCause() instanceof Exception ? (Exception) e.getCause() : e;
+        }
+    }
+
+    /**
+     * Método que devolve o gerador de uma partida, que sorteia o baralho e a semente da abertura.
+     * Uma partida tem o mesmo baralho e a mesma abertura em qualquer máquina
+     * @param seed A semente da geração
+     * @param game O número da partida
+     * @return O gerador da partida
+     */
+    public static SplittableRandom gameRandom(long seed, long game) {
+        return new SplittableRandom(seed + game * 0x9E3779B97F4A7C15L);
+    }
+
+    /**
+     * Método que sorteia um baralho de 5 cartas entre as cartas do jogo
+     * @param random O gerador usado
+     * @return As 5 cartas, na ordem de GameState(Card[])
+     */
+    public static Card[] randomDeck(SplittableRandom random) {
+        return Card.deal(random);
+    }
+
+    /**
+     * Método que transforma uma partida em registros de treino, um por posição em que um motor jogou
+     * @param match A partida
+     * @return Os registros, na ordem da partida
+     */
+    public static List<TrainingRecord> records(Match match) {
+        byte result;
+        if (match.getWinner() == GameState.RED) {
+            result = TrainingRecord.RED_WIN;
+        } else if (match.getWinner() == GameState.BLUE) {
+            result = TrainingRecord.BLUE_WIN;
+        } else {
+            result = TrainingRecord.DRAW;
+        }
+        GameState state = match.getStart();
+        int[] moves = match.getMoves();
+        int[] scores = match.getScores();
+        List<TrainingRecord> records = new ArrayList<>(moves.length);
+        for (int i = 0; i < moves.length; i++) {
+            int score = state.getSideToMove() == GameState.RED ? scores[i] : -scores[i];
+            records.add(new TrainingRecord(state.packBoard(), state.packCards(), score, result));
+            state.makeMove(moves[i]);
+        }
+        return records;
+    }
+}
@@ -0,0 +1,357 @@
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketTimeoutException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Coordenador da geração de dados de treino distribuída entre vários processos (SelfPlayWorker), na mesma
+ * máquina ou em outras. Cada conexão de um worker joga uma partida por vez: o coordenador envia o baralho e a
+ * semente da abertura, e o worker devolve os registros da partida, que são gravados por um ShardWriter.
+ * <p>
+ * As partidas são divididas em intervalos. Cada conexão consome o seu intervalo; quando ele acaba, pega outro
+ * da fila e, se a fila estiver vazia, rouba a metade final do maior intervalo de outra conexão. Se um worker
+ * cai ou deixa de responder, a partida que ele jogava volta para a fila e o resto do seu intervalo é
+ * redistribuído; uma partida que falha MAX_ATTEMPTS vezes encerra a geração com erro. As partidas são
+ * sorteadas como em SelfPlay, então o resultado não depende de quantos workers participaram.
+ * <p>
+ * O protocolo não tem autenticação, então o coordenador só aceita conexões da própria máquina, a não ser que
+ * --bind indique outro endereço (por exemplo 0.0.0.0 para todas as interfaces, numa rede confiável).
+ * <p>
+ * Uso: java SelfPlayCoordinator diretorio partidas ["name=a,depth=4"] [--port P] [--bind endereco] [--job-size N]
+ * [--shard-size N] [--random-plies N] [--seed S] [--timeout segundos]
+ */
+public class SelfPlayCoordinator {
+
+    /**
+     * Cabeçalho enviado por um worker ao se conectar: "ONW" seguido da versão do protocolo
+     */
+    static final int MAGIC = 0x4F4E5701;
+    static final byte JOB = 1;
+    static final byte RESULT = 2;
+    static final byte DONE = 3;
+
+    public static final int DEFAULT_PORT = 7878;
+    public static final int MAX_ATTEMPTS = 3;
+
+    private final String configSpec;
+    private final int randomPlies;
+    private final long seed;
+    private final long games;
+    private final int timeoutMillis;
+
+    private final Deque<Range> pending = new ArrayDeque<>();
+    private final List<Range> running = new ArrayList<>();
+    private final Map<Long, Integer> attempts = new HashMap<>();
+    private long completed;
+    private int workers;
+    private IOException failure;
+
+    /**
+     * Construtor que define a geração e divide as partidas em intervalos
+     * @param configSpec A configuração do motor, no formato de EngineConfig.parse; os arquivos citados nela
+     *                   precisam existir nas máquinas dos workers
+     * @param randomPlies Movimentos aleatórios no começo de cada partida
+     * @param seed Semente dos baralhos e das aberturas
+     * @param games Número de partidas
+     * @param jobSize Número de partidas de cada intervalo
+     * @param timeoutMillis Tempo máximo de espera pelo resultado de uma partida
+     */
+    public SelfPlayCoordinator(String configSpec, int randomPlies, long seed, long games, int jobSize,
+            int timeoutMillis) {
+        this.configSpec = configSpec;
+        this.randomPlies = randomPlies;
+        this.seed = seed;
+        this.games = games;
+        this.timeoutMillis = timeoutMillis;
+        for (long start = 0; start < games; start += jobSize) {
+            pending.add(new Range(start, Math.min(games, start + jobSize)));
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        String config = "name=selfplay,depth=4";
+        int port = DEFAULT_PORT;
+        InetAddress bind = InetAddress.getLoopbackAddress();
+        int jobSize = 16;
+        int shardSize = 1 << 20;
+        int randomPlies = 4;
+        long seed = 1;
+        int timeout = 600;
+        Path directory = null;
+        long games = -1;
+
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--port": port = Integer.parseInt(args[++i]); break;
+                case "--bind": bind = InetAddress.getByName(args[++i]); break;
+                case "--job-size": jobSize = Integer.parseInt(args[++i]); break;
+                case "--shard-size": shardSize = Integer.parseInt(args[++i]); break;
+                case "--random-plies": randomPlies = Integer.parseInt(args[++i]); break;
+                case "--seed": seed = Long.parseLong(args[++i]); break;
+                case "--timeout": timeout = Integer.parseInt(args[++i]); break;
+                default:
+                    if (directory == null) {
+                        directory = Paths.get(args[i]);
+                    } else if (games < 0) {
+                        games = Long.parseLong(args[i]);
+                    } else {
+                        config = args[i];
+                    }
+            }
+        }
+        if (directory == null || games < 0) {
+            System.out.println("Uso: java SelfPlayCoordinator diretorio partidas [config] [--port P] [--bind endereco] [--job-size N]");
+            return;
+        }
+        EngineConfig.parse(config);
+
+        SelfPlayCoordinator coordinator = new SelfPlayCoordinator(config, randomPlies, seed, games, jobSize,
+            timeout * 1000);
+        ShardWriter writer = new ShardWriter(directory, shardSize, 64, 22);
+        try {
+            coordinator.run(bind, port, writer);
+        } finally {
+            writer.close();
+        }
+        System.out.printf("%d posições gravadas, %d repetidas descartadas%n",
+            writer.getWritten(), writer.getDuplicates());
+    }
+
+    /**
+     * Método que aceita workers da própria máquina até que todas as partidas tenham terminado
+     * @param port A porta em que os workers se conectam
+     * @param writer O gravador dos shards
+     * @exception IOException Caso a porta não possa ser aberta, a gravação falhe ou uma partida falhe demais
+     * @exception InterruptedException Caso a thread seja interrompida
+     */
+    public void run(int port, ShardWriter writer) throws IOException, InterruptedException {
+        run(InetAddress.getLoopbackAddress(), port, writer);
+    }
+
+    /**
+     * Método que aceita workers até que todas as partidas tenham terminado
+     * @param bind O endereço local em que as conexões são aceitas
+     * @param port A porta em que os workers se conectam
+     * @param writer O gravador dos shards
+     * @exception IOException Caso a porta não possa ser aberta, a gravação falhe ou uma partida falhe demais
+     * @exception InterruptedException Caso a thread seja interrompida
+     */
+    public void run(InetAddress bind, int port, ShardWriter writer) throws IOException, InterruptedException {
+        ExecutorService connections = Executors.newCachedThreadPool();
+        try (ServerSocket server = new ServerSocket(port, 50, bind)) {
+            server.setSoTimeout(500);
+            System.out.println("Aguardando workers em " + bind.getHostAddress() + ":" + server.getLocalPort());
+            while (!isFinished()) {
+                try {
+                    Socket socket = server.accept();
+                    connections.execute(() -> serve(socket, writer));
+                } catch (SocketTimeoutException e) {
+                    // volta a verificar se a geração terminou
+                }
+            }
+        } finally {
+            connections.shutdown();
+            connections.awaitTermination(timeoutMillis, TimeUnit.MILLISECONDS);
+        }
+        synchronized (this) {
+            if (failure != null) {
+                throw failure;
+            }
+        }
+    }
+
+    private void serve(Socket socket, ShardWriter writer) {
+        Connection connection = new Connection(socket.getRemoteSocketAddress().toString());
+        long game = -1;
+        try (socket) {
+            socket.setSoTimeout(timeoutMillis);
+            DataInputStream in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+            DataOutputStream out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+            if (in.readInt() != MAGIC) {
+                throw new IOException("Protocolo desconhecido");
+            }
+            out.writeUTF(configSpec);
+            out.writeInt(randomPlies);
+            out.flush();
+            connected(connection);
+
+            while ((game = claim(connection)) >= 0) {
+                SplittableRandom random = SelfPlay.gameRandom(seed, game);
+                Card[] deck = SelfPlay.randomDeck(random);
+                out.writeByte(JOB);
+                out.writeLong(game);
+                for (Card card : deck) {
+                    out.writeUTF(card.getName());
+                }
+                out.writeLong(random.nextLong());
+                out.flush();
+
+                if (in.readByte() != RESULT || in.readLong() != game) {
+                    throw new IOException("Resposta inválida");
+                }
+                int count = in.readInt();
+                if (count < 0 || count > Match.MOVE_LIMIT) {
+                    throw new IOException("Número de registros inválido: " + count);
+                }
+                List<TrainingRecord> records = new ArrayList<>(count);
+                for (int i = 0; i < count; i++) {
+                    records.add(TrainingRecord.read(in));
+                }
+                try {
+                    writer.submit(records);
+                } catch (IOException e) {
+                    fail(e);
+                    return;
+                }
+                complete(game);
+                game = -1;
+            }
+            out.writeByte(DONE);
+            out.flush();
+        } catch (IOException e) {
+            System.out.println("Worker " + connection.name + " perdido: " + e);
+            abandon(connection, game);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            abandon(connection, game);
+        } finally {
+            disconnected(connection);
+        }
+    }
+
+    private synchronized void connected(Connection connection) {
+        workers++;
+        System.out.println("Worker " + connection.name + " conectado (" + workers + " ativos)");
+    }
+
+    private synchronized void disconnected(Connection connection) {
+        if (connection.range != null) {
+            running.remove(connection.range);
+            connection.range = null;
+        }
+        workers--;
+    }
+
+    /**
+     * Método que devolve a próxima partida de uma conexão, esperando enquanto não houver partidas livres
+     * mas ainda houver partidas em andamento, que podem voltar para a fila
+     * @param connection A conexão
+     * @return O número da partida, ou -1 se a geração terminou
+     */
+    private synchronized long claim(Connection connection) throws InterruptedException {
+        while (true) {
+            if (failure != null || completed == games) {
+                return -1;
+            }
+            Range range = connection.range;
+            if (range != null && range.next < range.end) {
+                return range.next++;
+            }
+            running.remove(range);
+            connection.range = pending.poll();
+            if (connection.range == null) {
+                connection.range = steal();
+            }
+            if (connection.range != null) {
+                running.add(connection.range);
+            } else {
+                wait();
+            }
+        }
+    }
+
+    private Range steal() {
+        Range victim = null;
+        for (Range range : running) {
+            if (range.end - range.next >= 2 && (victim == null || range.end - range.next > victim.end - victim.next)) {
+                victim = range;
+            }
+        }
+        if (victim == null) {
+            return null;
+        }
+        long middle = victim.next + (victim.end - victim.next) / 2;
+        Range stolen = new Range(middle, victim.end);
+        victim.end = middle;
+        return stolen;
+    }
+
+    private synchronized void complete(long game) {
+        completed++;
+        attempts.remove(game);
+        if (completed % 1000 == 0) {
+            System.out.println(completed + " partidas");
+        }
+        notifyAll();
+    }
+
+    private synchronized void abandon(Connection connection, long game) {
+        Range range = connection.range;
+        if (range != null) {
+            running.remove(range);
+            if (range.next < range.end) {
+                pending.addFirst(new Range(range.next, range.end));
+            }
+            connection.range = null;
+        }
+        if (game >= 0) {
+            int attempt = attempts.merge(game, 1, Integer::sum);
+            if (attempt >= MAX_ATTEMPTS) {
+                failure = new IOException("A partida " + game + " falhou " + attempt + " vezes");
+            } else {
+                pending.addFirst(new Range(game, game + 1));
+            }
+        }
+        notifyAll();
+    }
+
+    private synchronized void fail(IOException e) {
+        failure = e;
+        notifyAll();
+    }
+
+    private synchronized boolean isFinished() {
+        return failure != null || completed == games;
+    }
+
+    /**
+     * Intervalo [next, end) de partidas
+     */
+    private static class Range {
+
+        long next;
+        long end;
+
+        Range(long next, long end) {
+            this.next = next;
+            this.end = end;
+        }
+    }
+
+    private static class Connection {
+
+        final String name;
+        Range range;
+
+        Connection(String name) {
+            this.name = name;
+        }
+    }
+}
@@ -0,0 +1,111 @@
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.Socket;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Processo que joga partidas de treino para um SelfPlayCoordinator. Cada thread abre a sua própria conexão
+ * e joga uma partida por vez, com a configuração enviada pelo coordenador, até receber o aviso de fim.
+ * <p>
+ * Uso: java SelfPlayWorker host [--port P] [--threads N]
+ */
+public class SelfPlayWorker {
+
+    private final String host;
+    private final int port;
+
+    /**
+     * Construtor que define o endereço do coordenador
+     * @param host O endereço do coordenador
+     * @param port A porta do coordenador
+     */
+    public SelfPlayWorker(String host, int port) {
+        this.host = host;
+        this.port = port;
+    }
+
+    public static void main(String[] args) throws Exception {
+        String host = null;
+        int port = SelfPlayCoordinator.DEFAULT_PORT;
+        int threads = Runtime.getRuntime().availableProcessors();
+
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--port": port = Integer.parseInt(args[++i]); break;
+                case "--threads": threads = Integer.parseInt(args[++i]); break;
+                default: host = args[i];
+            }
+        }
+        if (host == null) {
+            System.out.println("Uso: java SelfPlayWorker host [--port P] [--threads N]");
+            return;
+        }
+
+        SelfPlayWorker worker = new SelfPlayWorker(host, port);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        List<Future<Long>> connections = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            connections.add(executor.submit(worker::work));
+        }
+        executor.shutdown();
+        long played = 0;
+        try {
+            for (Future<Long> connection : connections) {
+                played += connection.get();
+            }
+        } catch (ExecutionException e) {
+            executor.shutdownNow();
+            throw e.getCause() instanceof Exception ? (Exception) e.getCause() : e;
+        }
+        System.out.println(played + " partidas jogadas");
+    }
+
+    /**
+     * Método que abre uma conexão e joga as partidas enviadas por ela até o fim da geração
+     * @return O número de partidas jogadas
+     * @exception IOException Caso a conexão falhe
+     */
+    public long work() throws IOException {
+        long played = 0;
+        try (Socket socket = new Socket(host, port)) {
+            DataInputStream in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+            DataOutputStream out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+            out.writeInt(SelfPlayCoordinator.MAGIC);
+            out.flush();
+            EngineConfig config = EngineConfig.parse(in.readUTF());
+            int randomPlies = in.readInt();
+            Engine engine = config.createEngine();
+            Engine[] engines = {engine, engine};
+            EngineConfig[] configs = {config, config};
+
+            while (in.readByte() == SelfPlayCoordinator.JOB) {
+                long game = in.readLong();
+                Card[] deck = new Card[5];
+                for (int i = 0; i < deck.length; i++) {
+                    deck[i] = Card.byName(in.readUTF());
+                }
+                long openingSeed = in.readLong();
+
+                Match match = Match.play(deck, randomPlies, openingSeed, configs, engines);
+                List<TrainingRecord> records = SelfPlay.records(match);
+                out.writeByte(SelfPlayCoordinator.RESULT);
+                out.writeLong(game);
+                out.writeInt(records.size());
+                for (TrainingRecord record : records) {
+                    record.write(out);
+                }
+                out.flush();
+                played++;
+            }
+        }
+        return played;
+    }
+}
@@ -0,0 +1,114 @@
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Classe que lê de volta os registros gravados por ShardWriter como um Stream. Os registros são lidos
+ * de um em um, direto do arquivo compactado, então nenhum shard é carregado inteiro na memória.
+ */
+public class ShardReader {
+
+    private ShardReader() {
+    }
+
+    /**
+     * Método que lê todos os shards de um diretório, na ordem em que foram gravados.
+     * O Stream deve ser fechado depois de usado
+     * @param directory O diretório dos shards
+     * @return Os registros de todos os shards
+     * @exception IOException Caso o diretório não possa ser listado
+     */
+    public static Stream<TrainingRecord> stream(Path directory) throws IOException {
+        List<Path> shards;
+        try (Stream<Path> files = Files.list(directory)) {
+            shards = files.filter(file -> file.getFileName().toString().matches("shard-\\d+\\.bin\\.gz"))
+                .sorted()
+                .collect(Collectors.toList());
+        }
+        return shards.stream().flatMap(ShardReader::streamShard);
+    }
+
+    /**
+     * Método que lê os registros de um único shard. O Stream deve ser fechado depois de usado
+     * @param shard O arquivo do shard
+     * @return Os registros do shard
+     * @exception UncheckedIOException Caso o arquivo não possa ser lido, não seja um shard ou termine no meio de
+     * um registro; esta última só durante a leitura do Stream
+     */
+    public static Stream<TrainingRecord> streamShard(Path shard) {
+        try {
+            DataInputStream in = new DataInputStream(new BufferedInputStream(new GZIPInputStream(Files.newInputStream(shard), 1 << 16)));
+            if (in.readInt() != ShardWriter.MAGIC) {
+                in.close();
+                throw new IOException("Arquivo não é um shard: " + shard);
+            }
+            Iterator<TrainingRecord> records = new RecordIterator(in, shard);
+            return StreamSupport.stream(Spliterators.spliteratorUnknownSize(records, Spliterator.ORDERED | Spliterator.NONNULL), false)
+                .onClose(() -> {
+                    try {
+                        in.close();
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static class RecordIterator implements Iterator<TrainingRecord> {
+
+        private final DataInputStream in;
+        private final Path shard;
+        private TrainingRecord next;
+        private boolean done;
+
+        RecordIterator(DataInputStream in, Path shard) {
+            this.in = in;
+            this.shard = shard;
+        }
+
+        @Override
+        public boolean hasNext() {
+            if (next == null && !done) {
+                try {
+                    in.mark(1);
+                    if (in.read() < 0) {
+                        done = true;
+                        return false;
+                    }
+                    in.reset();
+                    next = TrainingRecord.read(in);
+                } catch (EOFException e) {
+                    throw new UncheckedIOException(new IOException("Registro incompleto no fim do shard " + shard, e));
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+            return next != null;
+        }
+
+        @Override
+        public TrainingRecord next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            TrainingRecord record = next;
+            next = null;
+            return record;
+        }
+    }
+}
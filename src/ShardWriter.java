@@ -0,0 +1,175 @@
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Classe que grava registros de treino em arquivos (shards) compactados com GZIP, todos com o mesmo número
+ * de registros, exceto o último. Quem produz os registros envia as posições de cada partida para uma fila
+ * limitada; uma única thread de escrita consome a fila, descarta posições repetidas e troca de arquivo
+ * quando o atual fica cheio. Se a escrita não acompanhar a produção, submit bloqueia.
+ * <p>
+ * As posições repetidas são detectadas por uma tabela de hashes de tamanho fixo, em que cada hash novo
+ * substitui o que estava na sua casa. A memória usada não cresce com o número de posições, mas uma
+ * repetição muito distante da primeira ocorrência pode passar.
+ */
+public class ShardWriter implements AutoCloseable {
+
+    /**
+     * Cabeçalho de cada shard: "OSH" seguido da versão do formato
+     */
+    public static final int MAGIC = 0x4F534801;
+
+    private static final List<TrainingRecord> END = List.of();
+
+    private final Path directory;
+    private final int recordsPerShard;
+    private final BlockingQueue<List<TrainingRecord>> queue;
+    private final long[] seen;
+    private final Thread thread;
+
+    private DataOutputStream out;
+    private int shardIndex;
+    private int inShard;
+    private long written;
+    private long duplicates;
+    private volatile IOException failure;
+
+    /**
+     * Construtor que cria o diretório, se necessário, e inicia a thread de escrita
+     * @param directory O diretório dos shards
+     * @param recordsPerShard O número de registros de cada shard
+     * @param queueCapacity O número de partidas que podem esperar na fila
+     * @param dedupBits Log2 do tamanho da tabela de posições repetidas (8 bytes por casa)
+     * @exception IOException Caso o diretório não possa ser criado
+     */
+    public ShardWriter(Path directory, int recordsPerShard, int queueCapacity, int dedupBits) throws IOException {
+        Files.createDirectories(directory);
+        this.directory = directory;
+        this.recordsPerShard = recordsPerShard;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.seen = new long[1 << dedupBits];
+        this.thread = new Thread(this::drain, "shard-writer");
+        this.thread.start();
+    }
+
+    /**
+     * Método que envia os registros de uma partida para gravação, esperando se a fila estiver cheia
+     * @param records Os registros
+     * @exception IOException Caso a gravação tenha falhado antes
+     * @exception InterruptedException Caso a thread seja interrompida enquanto espera
+     */
+    public void submit(List<TrainingRecord> records) throws IOException, InterruptedException {
+        checkFailure();
+        if (!records.isEmpty()) {
+            queue.put(records);
+        }
+    }
+
+    /**
+     * Método que espera a fila esvaziar e fecha o último shard
+     * @exception IOException Caso a gravação tenha falhado
+     */
+    @Override
+    public void close() throws IOException {
+        try {
+            while (!queue.offer(END, 100, TimeUnit.MILLISECONDS) && thread.isAlive()) {
+                // a fila está cheia: espera a thread de escrita, a não ser que ela tenha parado por erro
+            }
+            thread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Gravação interrompida", e);
+        }
+        checkFailure();
+    }
+
+    /**
+     * Método que devolve o número de registros gravados
+     * @return O número de registros
+     */
+    public long getWritten() {
+        return written;
+    }
+
+    /**
+     * Método que devolve o número de posições descartadas por serem repetidas
+     * @return O número de repetições
+     */
+    public long getDuplicates() {
+        return duplicates;
+    }
+
+    /**
+     * Método que devolve o nome do arquivo de um shard
+     * @param index O número do shard
+     * @return O nome do arquivo
+     */
+    public static String shardName(int index) {
+        return String.format("shard-%05d.bin.gz", index);
+    }
+
+    private void drain() {
+        try {
+            while (true) {
+                List<TrainingRecord> records = queue.take();
+                if (records == END) {
+                    break;
+                }
+                for (TrainingRecord record : records) {
+                    if (isDuplicate(record)) {
+                        duplicates++;
+                    } else {
+                        write(record);
+                    }
+                }
+            }
+            if (out != null) {
+                out.close();
+            }
+        } catch (IOException e) {
+            failure = e;
+            queue.clear();
+        } catch (InterruptedException e) {
+            failure = new IOException("Gravação interrompida", e);
+        }
+    }
+
+    private boolean isDuplicate(TrainingRecord record) {
+        long key = record.getBoard() * 0x9E3779B97F4A7C15L ^ record.getCards() * 0xC2B2AE3D27D4EB4FL;
+        key = key == 0 ? 1 : key;
+        int index = (int) (key ^ (key >>> 32)) & (seen.length - 1);
+        if (seen[index] == key) {
+            return true;
+        }
+        seen[index] = key;
+        return false;
+    }
+
+    private void write(TrainingRecord record) throws IOException {
+        if (out == null || inShard == recordsPerShard) {
+            if (out != null) {
+                out.close();
+            }
+            Path file = directory.resolve(shardName(shardIndex++));
+            out = new DataOutputStream(new BufferedOutputStream(new GZIPOutputStream(Files.newOutputStream(file), 1 << 16)));
+            out.writeInt(MAGIC);
+            inShard = 0;
+        }
+        record.write(out);
+        inShard++;
+        written++;
+    }
+
+    private void checkFailure() throws IOException {
+        if (failure != null) {
+            throw failure;
+        }
+    }
+}
@@ -0,0 +1,265 @@
+import java.util.Arrays;
+
+/**
+ * Resolvedor de posições táticas por busca de números de prova em profundidade (df-pn). Em vez de avaliar
+ * posições, prova que quem joga força a vitória (captura do mestre ou chegada ao templo, como em
+ * GameImpl.checkVictory), que o adversário força a vitória, ou desiste ao esgotar o limite de posições.
+ * <p>
+ * Cada posição guarda dois números do ponto de vista de quem joga nela: phi, o custo estimado para provar
+ * a vitória, e delta, o custo para refutá-la. Uma posição com phi 0 está ganha e uma com delta 0 está perdida.
+ * Para quem tenta vencer, empate (repetição ou falta de movimentos) conta como derrota; por isso uma
+ * vitória provada nunca depende de repetição, mas uma refutação pode depender do caminho e o resolvedor
+ * só responde LOSS quando prova a vitória do adversário.
+ * <p>
+ * Uso: java Solver "bbBbb/-----/-----/-----/rrRrr Tiger,Dragon Frog,Rabbit Crab r" [--nodes N] [--hash MB]
+ */
+public class Solver {
+
+    /**
+     * Profundidade máxima a partir da raiz; caminhos mais longos contam como empate
+     */
+    public static final int MAX_DEPTH = 128;
+
+    private static final int INFINITY = 100_000_000;
+
+    private final long[] keys;
+    private final int[] phis;
+    private final int[] deltas;
+    private final long[] works;
+    private final int mask;
+
+    private final int[][] moves = new int[MAX_DEPTH + 1][GameState.MAX_MOVES];
+    private GameState state;
+    private int attacker;
+    private long nodes;
+    private long budget;
+
+    // saída de lookup
+    private int childPhi;
+    private int childDelta;
+
+    /**
+     * Construtor que define o tamanho da tabela de números de prova
+     * @param megabytes Memória ocupada pela tabela; arredondada para baixo para uma potência de 2 entradas
+     */
+    public Solver(int megabytes) {
+        long wanted = Math.max(1024, (long) megabytes * 1024 * 1024 / 24);
+        int size = Integer.highestOneBit((int) Math.min(wanted, 1 << 30));
+        keys = new long[size];
+        phis = new int[size];
+        deltas = new int[size];
+        works = new long[size];
+        mask = size - 1;
+    }
+
+    public static void main(String[] args) {
+        String notation = null;
+        long maxNodes = 10_000_000;
+        int hash = 64;
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--nodes": maxNodes = Long.parseLong(args[++i]); break;
+                case "--hash": hash = Integer.parseInt(args[++i]); break;
+                default: notation = args[i];
+            }
+        }
+        if (notation == null) {
+            System.out.println("Uso: java Solver \"posição\" [--nodes N] [--hash MB]");
+            return;
+        }
+
+        GameState position = GameState.parse(notation);
+        SolverResult result = new Solver(hash).solve(position, maxNodes);
+        switch (result.getOutcome()) {
+            case SolverResult.WIN: System.out.println("Vitória forçada de quem joga"); break;
+            case SolverResult.LOSS: System.out.println("Derrota forçada de quem joga"); break;
+            default: System.out.println("Não resolvido");
+        }
+        GameState replay = new GameState(position);
+        for (int move : result.getLine()) {
+            System.out.println("  " + (replay.getSideToMove() == GameState.RED ? "vermelho " : "azul ")
+                + replay.moveToString(move));
+            replay.makeMove(move);
+        }
+        System.out.printf("%d posições em %d ms%n", result.getNodes(), result.getMillis());
+    }
+
+    /**
+     * Método que tenta resolver uma posição. Primeiro tenta provar a vitória de quem joga e, se ela for
+     * refutada, tenta provar a do adversário
+     * @param position A posição; não é alterada
+     * @param maxNodes Número máximo de posições expandidas nas duas provas juntas
+     * @return O resultado, com a linha da prova
+     */
+    public SolverResult solve(GameState position, long maxNodes) {
+        long start = System.currentTimeMillis();
+        nodes = 0;
+        budget = maxNodes;
+        int side = position.getSideToMove();
+
+        int outcome = SolverResult.UNKNOWN;
+        int[] line = new int[0];
+        prove(position, side);
+        if (childPhi == 0) {
+            outcome = SolverResult.WIN;
+            line = line();
+        } else if (childDelta == 0 && nodes < budget) {
+            prove(position, 1 - side);
+            if (childDelta == 0) {
+                outcome = SolverResult.LOSS;
+                line = line();
+            }
+        }
+        return new SolverResult(outcome, line, nodes, System.currentTimeMillis() - start);
+    }
+
+    /**
+     * Método que faz uma prova completa a partir da raiz, deixando os números da raiz em childPhi e childDelta
+     */
+    private void prove(GameState position, int color) {
+        Arrays.fill(keys, 0);
+        state = new GameState(position);
+        attacker = color;
+        lookup();
+        if (childPhi != 0 && childDelta != 0) {
+            search(0, INFINITY, INFINITY);
+            lookup();
+        }
+    }
+
+    private void search(int depth, int thresholdPhi, int thresholdDelta) {
+        long startNodes = nodes++;
+        int[] buffer = moves[depth];
+        int count = state.generateMoves(buffer);
+        int phi;
+        int delta;
+        if (count == 0) {
+            phi = state.getSideToMove() == attacker ? INFINITY : 0;
+            delta = INFINITY - phi;
+        } else {
+            while (true) {
+                // phi = menor delta dos filhos, delta = soma dos phi dos filhos
+                phi = INFINITY;
+                long sum = 0;
+                int best = -1;
+                int bestPhi = 0;
+                int secondDelta = INFINITY;
+                for (int i = 0; i < count; i++) {
+                    state.makeMove(buffer[i]);
+                    lookup(depth + 1);
+                    state.undoMove();
+                    sum += childPhi;
+                    if (childDelta < phi) {
+                        secondDelta = phi;
+                        phi = childDelta;
+                        best = i;
+                        bestPhi = childPhi;
+                    } else if (childDelta < secondDelta) {
+                        secondDelta = childDelta;
+                    }
+                }
+                delta = (int) Math.min(sum, INFINITY);
+                if (phi >= thresholdPhi || delta >= thresholdDelta || nodes >= budget) {
+                    break;
+                }
+                int childThresholdPhi = (int) Math.min((long) thresholdDelta + bestPhi - delta, INFINITY);
+                int childThresholdDelta = Math.min(thresholdPhi, secondDelta + 1);
+                state.makeMove(buffer[best]);
+                search(depth + 1, childThresholdPhi, childThresholdDelta);
+                state.undoMove();
+            }
+        }
+        store(state.getHash(), phi, delta, nodes - startNodes);
+    }
+
+    private void lookup() {
+        lookup(0);
+    }
+
+    /**
+     * Método que coloca em childPhi e childDelta os números da posição atual: os da vitória ou do empate,
+     * os da tabela ou 1 para uma posição nova
+     */
+    private void lookup(int depth) {
+        if (state.winner() >= 0) {
+            // só quem acabou de jogar pode ter vencido
+            childPhi = INFINITY;
+            childDelta = 0;
+        } else if (state.repetitions() > 1 || depth >= MAX_DEPTH) {
+            childPhi = state.getSideToMove() == attacker ? INFINITY : 0;
+            childDelta = INFINITY - childPhi;
+        } else {
+            int index = find(state.getHash());
+            if (index >= 0) {
+                childPhi = phis[index];
+                childDelta = deltas[index];
+            } else {
+                childPhi = 1;
+                childDelta = 1;
+            }
+        }
+    }
+
+    private int find(long hash) {
+        long key = hash == 0 ? 1 : hash;
+        int index = (int) key & mask & ~1;
+        if (keys[index] == key) {
+            return index;
+        }
+        return keys[index + 1] == key ? index + 1 : -1;
+    }
+
+    /**
+     * Método que grava os números de uma posição. Cada hash tem duas casas; se nenhuma for da posição,
+     * é substituída a que custou menos posições para calcular
+     */
+    private void store(long hash, int phi, int delta, long work) {
+        long key = hash == 0 ? 1 : hash;
+        int index = find(hash);
+        if (index < 0) {
+            index = (int) key & mask & ~1;
+            if (keys[index] != 0 && (keys[index + 1] == 0 || works[index + 1] < works[index])) {
+                index++;
+            }
+        }
+        keys[index] = key;
+        phis[index] = phi;
+        deltas[index] = delta;
+        works[index] = work;
+    }
+
+    /**
+     * Método que extrai da tabela a linha da prova que acabou de ser feita. O vencedor escolhe, entre os
+     * movimentos que deixam o adversário perdido, o que custou menos para provar, e o perdedor escolhe a
+     * defesa que custou mais
+     */
+    private int[] line() {
+        int[] line = new int[MAX_DEPTH];
+        int length = 0;
+        while (length < MAX_DEPTH && state.winner() < 0) {
+            int[] buffer = moves[0];
+            int count = state.generateMoves(buffer);
+            boolean winning = state.getSideToMove() == attacker;
+            int chosen = GameState.NO_MOVE;
+            long chosenWork = -1;
+            for (int i = 0; i < count; i++) {
+                state.makeMove(buffer[i]);
+                lookup(length + 1);
+                int index = find(state.getHash());
+                long work = index >= 0 ? works[index] : 0;
+                state.undoMove();
+                boolean better = chosen == GameState.NO_MOVE || (winning ? work < chosenWork : work > chosenWork);
+                if ((winning ? childDelta == 0 : childPhi == 0) && better) {
+                    chosen = buffer[i];
+                    chosenWork = work;
+                }
+            }
+            if (chosen == GameState.NO_MOVE) {
+                break;
+            }
+            state.makeMove(chosen);
+            line[length++] = chosen;
+        }
+        return Arrays.copyOf(line, length);
+    }
+}
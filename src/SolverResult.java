@@ -0,0 +1,51 @@
+import java.util.Arrays;
+
+/**
+ * Classe que guarda o resultado de Solver.solve
+ */
+public class SolverResult {
+
+    public static final int LOSS = -1;
+    public static final int UNKNOWN = 0;
+    public static final int WIN = 1;
+
+    private final int outcome;
+    private final int[] line;
+    private final long nodes;
+    private final long millis;
+
+    /**
+     * Construtor que define todas as informações da prova
+     * @param outcome WIN, LOSS ou UNKNOWN, do ponto de vista de quem joga
+     * @param line A sequência de movimentos que leva ao fim da partida, codificados como em GameState
+     * @param nodes O número de posições expandidas
+     * @param millis O tempo gasto em milissegundos
+     */
+    public SolverResult(int outcome, int[] line, long nodes, long millis) {
+        this.outcome = outcome;
+        this.line = line;
+        this.nodes = nodes;
+        this.millis = millis;
+    }
+
+    public int getOutcome() {
+        return outcome;
+    }
+
+    /**
+     * Método que devolve a linha da prova: os movimentos do vencedor e a defesa mais longa encontrada
+     * para o perdedor. Vazia quando o resultado é UNKNOWN
+     * @return Os movimentos, começando por quem joga na posição resolvida
+     */
+    public int[] getLine() {
+        return Arrays.copyOf(line, line.length);
+    }
+
+    public long getNodes() {
+        return nodes;
+    }
+
+    public long getMillis() {
+        return millis;
+    }
+}
@@ -0,0 +1,55 @@
+/**
+ * Classe que decide quanto tempo o motor pode gastar em um movimento a partir do relógio.
+ * O limite flexível é o tempo que a busca tenta usar: ela não começa uma nova iteração depois dele.
+ * O limite rígido interrompe a busca no meio, e nunca passa do tempo restante menos a margem de segurança.
+ */
+public class TimeManager {
+
+    private final long moveOverhead;
+    private final int movesToGo;
+
+    /**
+     * Construtor com uma margem de 50 ms por movimento e 25 movimentos restantes esperados
+     */
+    public TimeManager() {
+        this(50, 25);
+    }
+
+    /**
+     * Construtor que define a margem de segurança e a duração esperada da partida
+     * @param moveOverhead Tempo reservado a cada movimento para atrasos fora da busca (rede, carga da máquina) em milissegundos
+     * @param movesToGo Número de movimentos que ainda se espera jogar na partida
+     */
+    public TimeManager(long moveOverhead, int movesToGo) {
+        this.moveOverhead = moveOverhead;
+        this.movesToGo = movesToGo;
+    }
+
+    /**
+     * Método que calcula o tempo que a busca tenta usar no movimento
+     * @param remaining Tempo restante no relógio em milissegundos
+     * @param increment Incremento por movimento em milissegundos
+     * @return O limite flexível em milissegundos, no mínimo 1
+     */
+    public long softLimit(long remaining, long increment) {
+        long available = remaining - moveOverhead;
+        long soft = available / movesToGo + increment * 3 / 4;
+        return clamp(soft, available);
+    }
+
+    /**
+     * Método que calcula o tempo máximo que a busca pode usar no movimento
+     * @param remaining Tempo restante no relógio em milissegundos
+     * @param increment Incremento por movimento em milissegundos
+     * @return O limite rígido em milissegundos, no mínimo 1
+     */
+    public long hardLimit(long remaining, long increment) {
+        long available = remaining - moveOverhead;
+        long hard = Math.min(softLimit(remaining, increment) * 4, available / 3 + increment);
+        return clamp(hard, available);
+    }
+
+    private static long clamp(long limit, long available) {
+        return Math.max(1, Math.min(limit, available));
+    }
+}
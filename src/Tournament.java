@@ -0,0 +1,393 @@
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Ferramenta que joga um torneio todos contra todos entre configurações do motor, usando todos os núcleos.
+ * Cada par de configurações joga uma lista fixa de baralhos de 5 cartas formados com as cartas de
+ * Card.allCards, duas vezes cada (trocando as cores), em quantas rodadas forem pedidas. Cada partida é
+ * gravada no arquivo de resultados assim que termina, e um par para de jogar quando o SPRT decide.
+ * <p>
+ * Com as 16 cartas do pacote base há 4368 baralhos, então a lista tem por padrão DEFAULT_DECKS baralhos
+ * sorteados sempre com a mesma semente, para que torneios diferentes joguem os mesmos baralhos; --decks muda
+ * o tamanho da amostra, e --decks 0 usa todos os baralhos.
+ * <p>
+ * Com --clock, as partidas são jogadas com relógio (tempo inicial e incremento em milissegundos) em vez da
+ * profundidade ou do tempo fixo das configurações; com --ponder, os motores também pensam durante o tempo do
+ * adversário, e o resumo mostra quantas previsões de cada configuração acertaram.
+ * <p>
+ * Uso: java Tournament resultados.txt "name=a,depth=4" "name=b,depth=4,weights=pesos.txt" [--rounds N]
+ * [--threads N] [--random-plies N] [--elo0 E] [--elo1 E] [--alpha A] [--beta B] [--clock 10000+100] [--ponder]
+ * [--decks N]
+ */
+public class Tournament {
+
+    /**
+     * Número padrão de baralhos por rodada, o mesmo do jogo com 8 cartas
+     */
+    public static final int DEFAULT_DECKS = 56;
+
+    private static final long DECK_SEED = 0x4F4E4954414D41L;
+
+    private final EngineConfig[] configs;
+    private final int rounds;
+    private final int randomPlies;
+    private final int threads;
+    private final double elo0;
+    private final double elo1;
+    private final double alpha;
+    private final double beta;
+
+    private int deckCount = DEFAULT_DECKS;
+    private long clockMillis;
+    private long incrementMillis;
+    private boolean ponder;
+
+    private final MatchStats[][] stats;
+    private final AtomicIntegerArray decided;
+    private final AtomicLongArray ponderHits;
+    private final AtomicLongArray ponderMisses;
+
+    /**
+     * Construtor que define as configurações e as opções do torneio
+     * @param configs As configurações participantes
+     * @param rounds Quantas vezes cada par joga a lista completa de baralhos
+     * @param randomPlies Movimentos aleatórios no começo de cada partida; a mesma abertura é usada nas duas cores
+     * @param threads Número de partidas simultâneas
+     * @param elo0 Diferença de Elo da hipótese nula do SPRT
+     * @param elo1 Diferença de Elo da hipótese alternativa do SPRT
+     * @param alpha Erro do tipo I do SPRT
+     * @param beta Erro do tipo II do SPRT
+     */
+    public Tournament(EngineConfig[] configs, int rounds, int randomPlies, int threads,
+            double elo0, double elo1, double alpha, double beta) {
+        this.configs = configs;
+        this.rounds = rounds;
+        this.randomPlies = randomPlies;
+        this.threads = threads;
+        this.elo0 = elo0;
+        this.elo1 = elo1;
+        this.alpha = alpha;
+        this.beta = beta;
+        this.stats = new MatchStats[configs.length][configs.length];
+        for (int i = 0; i < configs.length; i++) {
+            for (int j = i + 1; j < configs.length; j++) {
+                stats[i][j] = new MatchStats();
+            }
+        }
+        this.decided = new AtomicIntegerArray(configs.length * configs.length);
+        this.ponderHits = new AtomicLongArray(configs.length);
+        this.ponderMisses = new AtomicLongArray(configs.length);
+    }
+
+    /**
+     * Método que define quantos baralhos cada par joga em cada rodada
+     * @param deckCount O número de baralhos sorteados, ou 0 para todos
+     */
+    public void setDecks(int deckCount) {
+        if (deckCount < 0) {
+            throw new IllegalArgumentException("Número de baralhos inválido: " + deckCount);
+        }
+        this.deckCount = deckCount;
+    }
+
+    /**
+     * Método que faz as partidas serem jogadas com relógio
+     * @param clockMillis Tempo inicial de cada jogador em milissegundos, ou 0 para jogar sem relógio
+     * @param incrementMillis Tempo acrescentado após cada movimento em milissegundos
+     * @param ponder Se os motores pensam durante o tempo do adversário
+     */
+    public void setClock(long clockMillis, long incrementMillis, boolean ponder) {
+        if (ponder && clockMillis <= 0) {
+            throw new IllegalArgumentException("Pensar no tempo do adversário exige relógio");
+        }
+        this.clockMillis = clockMillis;
+        this.incrementMillis = incrementMillis;
+        this.ponder = ponder;
+    }
+
+    public static void main(String[] args) throws Exception {
+        List<EngineConfig> configs = new ArrayList<>();
+        int rounds = 1;
+        int threads = Runtime.getRuntime().availableProcessors();
+        int randomPlies = 2;
+        double elo0 = 0;
+        double elo1 = 10;
+        double alpha = 0.05;
+        double beta = 0.05;
+        long clockMillis = 0;
+        long incrementMillis = 0;
+        boolean ponder = false;
+        int deckCount = DEFAULT_DECKS;
+        Path results = null;
+
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--rounds": rounds = Integer.parseInt(args[++i]); break;
+                case "--threads": threads = Integer.parseInt(args[++i]); break;
+                case "--random-plies": randomPlies = Integer.parseInt(args[++i]); break;
+                case "--elo0": elo0 = Double.parseDouble(args[++i]); break;
+                case "--elo1": elo1 = Double.parseDouble(args[++i]); break;
+                case "--alpha": alpha = Double.parseDouble(args[++i]); break;
+                case "--beta": beta = Double.parseDouble(args[++i]); break;
+                case "--clock":
+                    String[] clock = args[++i].split("\\+");
+                    clockMillis = Long.parseLong(clock[0]);
+                    incrementMillis = clock.length > 1 ? Long.parseLong(clock[1]) : 0;
+                    break;
+                case "--ponder": ponder = true; break;
+                case "--decks": deckCount = Integer.parseInt(args[++i]); break;
+                default:
+                    if (results == null) {
+                        results = Paths.get(args[i]);
+                    } else {
+                        configs.add(EngineConfig.parse(args[i]));
+                    }
+            }
+        }
+        if (results == null || configs.size() < 2) {
+            System.out.println("Uso: java Tournament resultados.txt config1 config2 [...] [--rounds N] [--threads N]");
+            return;
+        }
+
+        Tournament tournament = new Tournament(configs.toArray(new EngineConfig[0]), rounds, randomPlies, threads,
+            elo0, elo1, alpha, beta);
+        tournament.setClock(clockMillis, incrementMillis, ponder);
+        tournament.setDecks(deckCount);
+        tournament.run(results);
+        tournament.printSummary();
+    }
+
+    /**
+     * Método que devolve todos os baralhos de 5 cartas formados com as cartas do jogo. Em cada baralho,
+     * as cartas ficam na ordem de Card.allCards
+     * @return Os baralhos, em ordem lexicográfica das posições das cartas
+     */
+    public static List<Card[]> allDecks() {
+        Card[] cards = Card.allCards();
+        List<Card[]> decks = new ArrayList<>();
+        int n = cards.length;
+        for (int i = 0; i < n; i++) {
+            for (int j = i + 1; j < n; j++) {
+                for (int k = j + 1; k < n; k++) {
+                    for (int l = k + 1; l < n; l++) {
+                        for (int m = l + 1; m < n; m++) {
+                            decks.add(new Card[] {cards[i], cards[j], cards[k], cards[l], cards[m]});
+                        }
+                    }
+                }
+            }
+        }
+        return decks;
+    }
+
+    /**
+     * Método que sorteia uma amostra dos baralhos de allDecks. A mesma semente sempre produz a mesma amostra
+     * para o mesmo arquivo de cartas
+     * @param count O número de baralhos, ou 0 para todos
+     * @param seed A semente do sorteio
+     * @return Os baralhos sorteados, na ordem de allDecks
+     */
+    public static List<Card[]> sampleDecks(int count, long seed) {
+        List<Card[]> decks = allDecks();
+        if (count <= 0 || count >= decks.size()) {
+            return decks;
+        }
+        int[] indexes = new int[decks.size()];
+        for (int i = 0; i < indexes.length; i++) {
+            indexes[i] = i;
+        }
+        SplittableRandom random = new SplittableRandom(seed);
+        for (int i = 0; i < count; i++) {
+            int j = i + random.nextInt(indexes.length - i);
+            int temp = indexes[i];
+            indexes[i] = indexes[j];
+            indexes[j] = temp;
+        }
+        int[] chosen = Arrays.copyOf(indexes, count);
+        Arrays.sort(chosen);
+        List<Card[]> sample = new ArrayList<>(count);
+        for (int index : chosen) {
+            sample.add(decks.get(index));
+        }
+        return sample;
+    }
+
+    /**
+     * Método que joga o torneio, gravando uma linha por partida no arquivo de resultados
+     * @param results O arquivo de resultados
+     * @exception IOException Caso o arquivo não possa ser escrito
+     * @exception InterruptedException Caso a thread seja interrompida
+     */
+    public void run(Path results) throws IOException, InterruptedException {
+        List<Card[]> decks = sampleDecks(deckCount, DECK_SEED);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CompletionService<Pairing> completion = new ExecutorCompletionService<>(executor);
+        ThreadLocal<Engine[]> engines = ThreadLocal.withInitial(() -> {
+            Engine[] created = new Engine[configs.length];
+            for (int i = 0; i < configs.length; i++) {
+                created[i] = configs[i].createEngine();
+            }
+            return created;
+        });
+        List<Ponderer> allPonderers = new ArrayList<>();
+        ThreadLocal<Ponderer[]> ponderers = ThreadLocal.withInitial(() -> {
+            Ponderer[] created = new Ponderer[configs.length];
+            for (int i = 0; i < configs.length; i++) {
+                created[i] = new Ponderer(configs[i].createEngine());
+            }
+            synchronized (allPonderers) {
+                allPonderers.addAll(Arrays.asList(created));
+            }
+            return created;
+        });
+
+        int submitted = 0;
+        for (int round = 0; round < rounds; round++) {
+            for (int d = 0; d < decks.size(); d++) {
+                for (int i = 0; i < configs.length; i++) {
+                    for (int j = i + 1; j < configs.length; j++) {
+                        for (int swap = 0; swap < 2; swap++) {
+                            Pairing game = new Pairing(round, d, i, j, swap == 1);
+                            Card[] deck = decks.get(d);
+                            long seed = (long) round * decks.size() + d;
+                            completion.submit(() -> clockMillis > 0
+                                ? game.play(deck, seed, ponderers.get()) : game.play(deck, seed, engines.get()));
+                            submitted++;
+                        }
+                    }
+                }
+            }
+        }
+
+        try (BufferedWriter writer = Files.newBufferedWriter(results)) {
+            writer.write("round\tdeck\tred\tblue\tresult\tplies");
+            writer.newLine();
+            for (int k = 0; k < submitted; k++) {
+                Pairing game = completion.take().get();
+                if (game.match == null) {
+                    continue;
+                }
+                writer.write(game.toString());
+                writer.newLine();
+                writer.flush();
+                record(game);
+            }
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Falha em uma partida", e.getCause());
+        } finally {
+            executor.shutdownNow();
+            executor.awaitTermination(1, TimeUnit.MINUTES);
+            synchronized (allPonderers) {
+                for (Ponderer ponderer : allPonderers) {
+                    ponderer.shutdown();
+                }
+            }
+        }
+    }
+
+    private void record(Pairing game) {
+        MatchStats pair = stats[game.first][game.second];
+        int firstColor = game.swapped ? GameState.BLUE : GameState.RED;
+        int winner = game.match.getWinner();
+        pair.add(winner == Match.DRAW ? 0.5 : winner == firstColor ? 1 : 0);
+        int red = game.swapped ? game.second : game.first;
+        int blue = game.swapped ? game.first : game.second;
+        ponderHits.addAndGet(red, game.match.getPonderHits(GameState.RED));
+        ponderHits.addAndGet(blue, game.match.getPonderHits(GameState.BLUE));
+        ponderMisses.addAndGet(red, game.match.getPonderMisses(GameState.RED));
+        ponderMisses.addAndGet(blue, game.match.getPonderMisses(GameState.BLUE));
+
+        int decision = pair.sprt(elo0, elo1, alpha, beta);
+        if (decision != MatchStats.CONTINUE && decided.compareAndSet(game.first * configs.length + game.second, 0, 1)) {
+            System.out.println("SPRT " + configs[game.first] + " vs " + configs[game.second] + ": "
+                + (decision == MatchStats.ACCEPT_H1 ? "H1 aceita" : "H0 aceita") + ", " + pair);
+        }
+    }
+
+    /**
+     * Método que imprime o resultado de cada par de configurações
+     */
+    public void printSummary() {
+        for (int i = 0; i < configs.length; i++) {
+            for (int j = i + 1; j < configs.length; j++) {
+                MatchStats pair = stats[i][j];
+                System.out.printf("%s vs %s: %s, LLR %.2f%n", configs[i], configs[j], pair, pair.getLlr(elo0, elo1));
+            }
+        }
+        if (ponder) {
+            for (int i = 0; i < configs.length; i++) {
+                long hits = ponderHits.get(i);
+                long total = hits + ponderMisses.get(i);
+                System.out.printf("Ponder %s: %d acertos, %d erros (%.1f%%)%n", configs[i], hits, total - hits,
+                    total == 0 ? 0.0 : 100.0 * hits / total);
+            }
+        }
+    }
+
+    /**
+     * Uma partida do torneio: a configuração first contra a second, com first de vermelho a não ser que swapped
+     */
+    private class Pairing {
+
+        private final int round;
+        private final int deck;
+        private final int first;
+        private final int second;
+        private final boolean swapped;
+        private Match match;
+
+        Pairing(int round, int deck, int first, int second, boolean swapped) {
+            this.round = round;
+            this.deck = deck;
+            this.first = first;
+            this.second = second;
+            this.swapped = swapped;
+        }
+
+        Pairing play(Card[] cards, long seed, Engine[] engines) {
+            if (decided.get(first * configs.length + second) != 0) {
+                return this;
+            }
+            int red = swapped ? second : first;
+            int blue = swapped ? first : second;
+            match = Match.play(cards, randomPlies, seed,
+                new EngineConfig[] {configs[red], configs[blue]}, new Engine[] {engines[red], engines[blue]});
+            return this;
+        }
+
+        Pairing play(Card[] cards, long seed, Ponderer[] ponderers) {
+            if (decided.get(first * configs.length + second) != 0) {
+                return this;
+            }
+            int red = swapped ? second : first;
+            int blue = swapped ? first : second;
+            match = Match.play(cards, randomPlies, seed, new Ponderer[] {ponderers[red], ponderers[blue]},
+                new Clock(clockMillis, incrementMillis), ponder);
+            return this;
+        }
+
+        @Override
+        public String toString() {
+            int red = swapped ? second : first;
+            int blue = swapped ? first : second;
+            int winner = match.getWinner();
+            String result = winner == GameState.RED ? "1-0" : winner == GameState.BLUE ? "0-1" : "1/2-1/2";
+            return round + "\t" + deck + "\t" + configs[red] + "\t" + configs[blue] + "\t" + result + "\t" + match.getMoves().length;
+        }
+    }
+}
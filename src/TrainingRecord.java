@@ -0,0 +1,96 @@
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+/**
+ * Registro de treino de tamanho fixo: uma posição compactada (GameState.packBoard e packCards),
+ * a avaliação da busca e o resultado da partida, ambos do ponto de vista do vermelho.
+ */
+public class TrainingRecord {
+
+    /**
+     * Tamanho de um registro gravado, em bytes
+     */
+    public static final int SIZE = 19;
+
+    public static final byte BLUE_WIN = 0;
+    public static final byte DRAW = 1;
+    public static final byte RED_WIN = 2;
+
+    private final long board;
+    private final long cards;
+    private final short score;
+    private final byte result;
+
+    /**
+     * Construtor que define todas as informações do registro
+     * @param board A posição compactada por GameState.packBoard
+     * @param cards As cartas compactadas por GameState.packCards
+     * @param score A avaliação da busca do ponto de vista do vermelho
+     * @param result BLUE_WIN, DRAW ou RED_WIN
+     */
+    public TrainingRecord(long board, long cards, int score, byte result) {
+        this.board = board;
+        this.cards = cards;
+        this.score = (short) Math.max(Short.MIN_VALUE, Math.min(Short.MAX_VALUE, score));
+        this.result = result;
+    }
+
+    /**
+     * Método que lê um registro gravado por write
+     * @param in A entrada
+     * @return O registro lido
+     * @exception IOException Caso a entrada não possa ser lida
+     */
+    public static TrainingRecord read(DataInput in) throws IOException {
+        long board = in.readLong();
+        long cards = in.readInt() & 0xFFFFFFFFL;
+        short score = in.readShort();
+        byte result = in.readByte();
+        return new TrainingRecord(board, cards, score, result);
+    }
+
+    /**
+     * Método que grava o registro com SIZE bytes
+     * @param out A saída
+     * @exception IOException Caso a saída não possa ser escrita
+     */
+    public void write(DataOutput out) throws IOException {
+        out.writeLong(board);
+        out.writeInt((int) cards);
+        out.writeShort(score);
+        out.writeByte(result);
+    }
+
+    public long getBoard() {
+        return board;
+    }
+
+    public long getCards() {
+        return cards;
+    }
+
+    public int getScore() {
+        return score;
+    }
+
+    public byte getResult() {
+        return result;
+    }
+
+    /**
+     * Método que devolve o resultado como pontuação do vermelho, no formato usado por Tuner
+     * @return 1 para vitória do vermelho, 0.5 para empate e 0 para vitória do azul
+     */
+    public double getRedScore() {
+        return result / 2.0;
+    }
+
+    /**
+     * Método que reconstrói a posição do registro
+     * @return A posição
+     */
+    public GameState toState() {
+        return GameState.unpack(board, cards);
+    }
+}
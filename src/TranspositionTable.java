@@ -0,0 +1,124 @@
+import java.util.Arrays;
+
+/**
+ * Tabela de transposição do motor: guarda, para cada hash de posição, o melhor movimento, a avaliação,
+ * a profundidade e o tipo de limite da última busca que passou por ela. É o que permite reaproveitar
+ * buscas anteriores, por exemplo as feitas durante o tempo do adversário.
+ * <p>
+ * Cada entrada é um long e a chave é gravada como (hash XOR entrada), então uma leitura concorrente
+ * com uma escrita é detectada como ausência de entrada, sem precisar de trava.
+ */
+public class TranspositionTable {
+
+    public static final int EXACT = 0;
+    public static final int LOWER = 1;
+    public static final int UPPER = 2;
+
+    private static final long VALID = 1L << 62;
+
+    private final long[] keys;
+    private final long[] entries;
+    private final int mask;
+
+    /**
+     * Construtor que define o tamanho da tabela
+     * @param megabytes Memória ocupada pela tabela; arredondada para baixo para uma potência de 2 entradas
+     */
+    public TranspositionTable(int megabytes) {
+        long wanted = Math.max(1024, (long) megabytes * 1024 * 1024 / 16);
+        int size = Integer.highestOneBit((int) Math.min(wanted, 1 << 30));
+        keys = new long[size];
+        entries = new long[size];
+        mask = size - 1;
+    }
+
+    /**
+     * Método que procura uma posição na tabela
+     * @param hash O hash da posição
+     * @return A entrada encontrada ou 0 caso a posição não esteja na tabela
+     */
+    public long probe(long hash) {
+        int index = (int) hash & mask;
+        long entry = entries[index];
+        return (keys[index] ^ entry) == hash && entry != 0 ? entry : 0;
+    }
+
+    /**
+     * Método que grava o resultado da busca de uma posição. Uma entrada de outra posição é sempre
+     * substituída; uma da mesma posição só é substituída por uma busca de profundidade igual ou maior
+     * @param hash O hash da posição
+     * @param move O melhor movimento ou GameState.NO_MOVE
+     * @param score A avaliação, já ajustada com toStored caso seja de vitória
+     * @param depth A profundidade da busca
+     * @param bound EXACT, LOWER ou UPPER
+     */
+    public void store(long hash, int move, int score, int depth, int bound) {
+        int index = (int) hash & mask;
+        long old = entries[index];
+        if ((keys[index] ^ old) == hash && old != 0 && depth < entryDepth(old)) {
+            return;
+        }
+        long entry = VALID | ((long) bound << 56) | ((long) (depth & 0xFF) << 48)
+            | ((score & 0xFFFFFFFFL) << 16) | (move & 0xFFFF);
+        entries[index] = entry;
+        keys[index] = hash ^ entry;
+    }
+
+    /**
+     * Método que apaga todas as entradas, por exemplo no começo de uma nova partida
+     */
+    public void clear() {
+        Arrays.fill(keys, 0);
+        Arrays.fill(entries, 0);
+    }
+
+    public static int entryMove(long entry) {
+        int move = (int) (entry & 0xFFFF);
+        return move == 0xFFFF ? GameState.NO_MOVE : move;
+    }
+
+    public static int entryScore(long entry) {
+        return (int) (entry >>> 16);
+    }
+
+    public static int entryDepth(long entry) {
+        return (int) (entry >>> 48) & 0xFF;
+    }
+
+    public static int entryBound(long entry) {
+        return (int) (entry >>> 56) & 3;
+    }
+
+    /**
+     * Método que converte uma avaliação de vitória relativa à raiz em relativa à posição gravada,
+     * para que ela continue correta quando a posição for encontrada em outra altura da árvore
+     * @param score A avaliação
+     * @param ply A distância até a raiz
+     * @return A avaliação a ser gravada
+     */
+    public static int toStored(int score, int ply) {
+        if (score >= Engine.WIN - Engine.MAX_PLY) {
+            return score + ply;
+        }
+        if (score <= -Engine.WIN + Engine.MAX_PLY) {
+            return score - ply;
+        }
+        return score;
+    }
+
+    /**
+     * Método que faz a conversão inversa de toStored
+     * @param score A avaliação gravada
+     * @param ply A distância até a raiz
+     * @return A avaliação relativa à raiz
+     */
+    public static int fromStored(int score, int ply) {
+        if (score >= Engine.WIN - Engine.MAX_PLY) {
+            return score - ply;
+        }
+        if (score <= -Engine.WIN + Engine.MAX_PLY) {
+            return score + ply;
+        }
+        return score;
+    }
+}
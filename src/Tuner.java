@@ -0,0 +1,183 @@
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Stream;
+
+/**
+ * Ferramenta que ajusta os pesos de Evaluator pelo método de Texel: a avaliação é convertida em
+ * probabilidade de vitória por uma logística e os pesos são ajustados para minimizar o erro quadrático
+ * em relação ao resultado real das partidas.
+ * <p>
+ * O arquivo de entrada tem uma posição por linha, na notação de GameState.parse, seguida do resultado
+ * do ponto de vista do vermelho: 1 (vitória), 0.5 (empate) ou 0 (derrota). A cada época o arquivo é
+ * lido de novo em paralelo, sem carregar as posições na memória.
+ * <p>
+ * Uso: java Tuner posicoes.txt pesos.txt [épocas] [threads]
+ */
+public class Tuner {
+
+    private static final double[] SCALES = {0.25, 0.5, 0.75, 1, 1.25, 1.5, 2, 3};
+
+    private final Path data;
+    private final ForkJoinPool pool;
+
+    /**
+     * Construtor que define o arquivo de posições e o número de threads usadas
+     * @param data O arquivo de posições
+     * @param threads O número de threads
+     */
+    public Tuner(Path data, int threads) {
+        this.data = data;
+        this.pool = new ForkJoinPool(threads);
+    }
+
+    public static void main(String[] args) throws Exception {
+        if (args.length < 2) {
+            System.out.println("Uso: java Tuner posicoes.txt pesos.txt [épocas] [threads]");
+            return;
+        }
+        int epochs = args.length > 2 ? Integer.parseInt(args[2]) : 100;
+        int threads = args.length > 3 ? Integer.parseInt(args[3]) : Runtime.getRuntime().availableProcessors();
+
+        Tuner tuner = new Tuner(Paths.get(args[0]), threads);
+        Evaluator tuned = tuner.tune(new Evaluator(), epochs);
+        tuned.save(Paths.get(args[1]));
+        System.out.println("Pesos gravados em " + args[1]);
+    }
+
+    /**
+     * Método que ajusta os pesos partindo de um avaliador inicial. Primeiro escolhe a escala da logística
+     * que melhor explica os resultados com os pesos iniciais, depois faz uma passada de gradiente (Adam)
+     * por época, imprimindo o erro de cada época
+     * @param initial O avaliador com os pesos iniciais
+     * @param epochs O número de épocas
+     * @return Um avaliador com os pesos ajustados
+     * @exception IOException Caso o arquivo de posições não possa ser lido
+     */
+    public Evaluator tune(Evaluator initial, int epochs) throws IOException {
+        double[] weights = initial.getWeights();
+        double scale = fitScale(weights);
+        System.out.println("Escala da logística: " + scale);
+
+        int n = weights.length;
+        double[] m = new double[n];
+        double[] v = new double[n];
+        double rate = 1.0;
+        double beta1 = 0.9;
+        double beta2 = 0.999;
+
+        for (int epoch = 1; epoch <= epochs; epoch++) {
+            Batch batch = pass(weights, new double[] {scale});
+            double[] gradient = batch.gradient();
+            for (int i = 0; i < n; i++) {
+                m[i] = beta1 * m[i] + (1 - beta1) * gradient[i];
+                v[i] = beta2 * v[i] + (1 - beta2) * gradient[i] * gradient[i];
+                double mHat = m[i] / (1 - Math.pow(beta1, epoch));
+                double vHat = v[i] / (1 - Math.pow(beta2, epoch));
+                weights[i] -= rate * mHat / (Math.sqrt(vHat) + 1e-12);
+            }
+            System.out.printf("Época %d: erro %.6f (%d posições)%n", epoch, batch.loss(0), batch.count);
+        }
+        return new Evaluator(weights);
+    }
+
+    private double fitScale(double[] weights) throws IOException {
+        Batch batch = pass(weights, SCALES);
+        int best = 0;
+        for (int i = 1; i < SCALES.length; i++) {
+            if (batch.loss(i) < batch.loss(best)) {
+                best = i;
+            }
+        }
+        return SCALES[best];
+    }
+
+    private Batch pass(double[] weights, double[] scales) throws IOException {
+        try (Stream<String> lines = Files.lines(data)) {
+            return pool.submit(() -> lines.parallel()
+                .filter(line -> !line.isBlank() && !line.startsWith("#"))
+                .collect(() -> new Batch(weights, scales), Batch::add, Batch::merge)).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Ajuste interrompido", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof UncheckedIOException) {
+                throw ((UncheckedIOException) e.getCause()).getCause();
+            }
+            throw new IOException("Falha ao ler " + data, e.getCause());
+        }
+    }
+
+    /**
+     * Acumula o erro e o gradiente de uma parte das posições. Cada thread usa o seu próprio acumulador
+     * e os acumuladores são somados no final da passada
+     */
+    private static class Batch {
+
+        private final double[] weights;
+        private final double[] scales;
+        private final double[] features;
+        private final double[] losses;
+        private final double[] gradient;
+        private final int[] moves = new int[GameState.MAX_MOVES];
+        private long count;
+
+        Batch(double[] weights, double[] scales) {
+            this.weights = weights;
+            this.scales = scales;
+            this.features = new double[weights.length];
+            this.losses = new double[scales.length];
+            this.gradient = new double[weights.length];
+        }
+
+        void add(String line) {
+            int split = line.lastIndexOf(' ');
+            double result = Double.parseDouble(line.substring(split + 1));
+            Evaluator.features(GameState.parse(line.substring(0, split)), features, moves);
+
+            double score = 0;
+            for (int i = 0; i < weights.length; i++) {
+                score += weights[i] * features[i];
+            }
+            for (int s = 0; s < scales.length; s++) {
+                double k = scales[s] * Math.log(10) / 400;
+                double p = 1 / (1 + Math.exp(-k * score));
+                double error = result - p;
+                losses[s] += error * error;
+                if (s == 0) {
+                    double factor = -2 * error * p * (1 - p) * k;
+                    for (int i = 0; i < weights.length; i++) {
+                        gradient[i] += factor * features[i];
+                    }
+                }
+            }
+            count++;
+        }
+
+        void merge(Batch other) {
+            for (int s = 0; s < losses.length; s++) {
+                losses[s] += other.losses[s];
+            }
+            for (int i = 0; i < gradient.length; i++) {
+                gradient[i] += other.gradient[i];
+            }
+            count += other.count;
+        }
+
+        double loss(int scale) {
+            return count == 0 ? 0 : losses[scale] / count;
+        }
+
+        double[] gradient() {
+            double[] mean = new double[gradient.length];
+            for (int i = 0; i < gradient.length; i++) {
+                mean[i] = count == 0 ? 0 : gradient[i] / count;
+            }
+            return mean;
+        }
+    }
+}